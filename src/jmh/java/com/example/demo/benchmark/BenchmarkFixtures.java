@@ -0,0 +1,93 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.security.JwtTokenProvider;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Общие объекты для бенчмарков: компоненты, собранные без Spring-контекста,
+ * и запуск приложения на H2 в памяти с тестовыми данными.
+ */
+final class BenchmarkFixtures {
+
+    static final String JWT_SECRET = "benchmark-secret-key-min-32-characters-long";
+
+    private static final String[] WORDS = {
+            "ноутбук", "телефон", "диван", "велосипед", "куртка", "холодильник", "гитара",
+            "коляска", "квартира", "шкаф", "новый", "отличное", "состояние", "срочно", "торг"
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtTokenProvider jwtTokenProvider() {
+        return jwtTokenProvider(10_000L);
+    }
+
+    static JwtTokenProvider jwtTokenProvider(long verifiedCacheMaxSize) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(provider, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(provider, "refreshTokenExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxSize", verifiedCacheMaxSize);
+        ReflectionTestUtils.setField(provider, "verifiedCacheTtlSeconds", 60L);
+        ReflectionTestUtils.invokeMethod(provider, "init");
+        return provider;
+    }
+
+    /**
+     * Приложение в профиле dev на H2 в памяти. Настройки передаются аргументами командной строки,
+     * чтобы перекрыть значения профиля; extraArgs — дополнительные настройки бенчмарка.
+     */
+    static ConfigurableApplicationContext startApplication(WebApplicationType webApplicationType, String... extraArgs) {
+        String[] args = Stream.concat(Stream.of(
+                        "--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.example.demo=WARN",
+                        "--logging.level.org.springframework.security=WARN"),
+                Stream.of(extraArgs)).toArray(String[]::new);
+        return new SpringApplicationBuilder(DemoApplication.class)
+                .web(webApplicationType)
+                .profiles("dev")
+                .run(args);
+    }
+
+    /** Объявления пачками по 1000; каждое двадцатое — неактивное. */
+    static void seedListings(JdbcTemplate jdbcTemplate, int count) {
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users", Long.class);
+        List<Long> categoryIds = jdbcTemplate.queryForList("SELECT id FROM categories", Long.class);
+        LocalDateTime base = LocalDateTime.now().minusDays(30);
+
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String title = WORDS[i % 10] + " " + WORDS[10 + i % 5] + " " + i;
+            String description = WORDS[(i * 7) % WORDS.length] + " " + WORDS[(i * 3) % WORDS.length];
+            Timestamp createdAt = Timestamp.valueOf(base.plusSeconds(i));
+            batch.add(new Object[]{title, description, 1000.0 + i % 50_000,
+                    userIds.get(i % userIds.size()), categoryIds.get(i % categoryIds.size()),
+                    createdAt, createdAt, i % 20 != 0});
+            if (batch.size() == 1000) {
+                insertListings(jdbcTemplate, batch);
+                batch.clear();
+            }
+        }
+        insertListings(jdbcTemplate, batch);
+    }
+
+    // id из listings_seq: у колонки нет значения по умолчанию (Listing использует SEQUENCE)
+    private static void insertListings(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO listings (id, title, description, price, user_id, category_id, "
+                + "created_at, updated_at, is_active) VALUES (nextval('listings_seq'), ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.entity.Category;
+import com.example.demo.entity.Listing;
+import com.example.demo.entity.Message;
+import com.example.demo.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация ответов списочных эндпоинтов: страница объявлений и входящие сообщения
+ * с вложенными пользователями, категориями и объявлениями.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "500"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<Listing> listings;
+    private List<Message> messages;
+
+    @Setup
+    public void setUp() {
+        // Тот же набор модулей, что и у ObjectMapper Spring Boot
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            User user = new User("user" + i, "user" + i + "@example.com", "USER");
+            user.setId((long) i);
+            user.setPassword("$2a$10$ZIvxYWu.Ov7e0KhpBdAp..kFRKiY0Z1h9jC.x3VvSi8yJ0LZ3PvGK");
+            users.add(user);
+        }
+        Category category = new Category("Электроника", "Смартфоны, ноутбуки, планшеты");
+        category.setId(1L);
+
+        listings = new ArrayList<>();
+        messages = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            Listing listing = new Listing("Ноутбук Dell XPS " + i,
+                    "Мощный ноутбук для работы и игр, отличное состояние, полный комплект", 55000.0 + i,
+                    users.get(i % users.size()), category);
+            listing.setId((long) i);
+            listing.setCreatedAt(now);
+            listing.setUpdatedAt(now);
+            listings.add(listing);
+
+            Message message = new Message("Здравствуйте, объявление ещё актуально? " + i, listing,
+                    users.get((i + 1) % users.size()), users.get(i % users.size()));
+            message.setId((long) i);
+            message.setCreatedAt(now);
+            messages.add(message);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeListings() throws Exception {
+        return objectMapper.writeValueAsBytes(listings);
+    }
+
+    @Benchmark
+    public byte[] serializeMessages() throws Exception {
+        return objectMapper.writeValueAsBytes(messages);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.security.JwtAuthenticationFilter;
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.security.UserStatusCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность JwtAuthenticationFilter на одном и том же access-токене.
+ * verifiedCacheMaxSize=0 (jwt.verified-cache.max-size=0) отключает кэш проверенных токенов:
+ * каждый запрос платит за HMAC и разбор JSON, как при потоке всегда новых токенов.
+ * legacyTripleParse воспроизводит прежний путь: ключ пересоздаётся и токен разбирается трижды.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"10000", "0"})
+    public long verifiedCacheMaxSize;
+
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter filter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = BenchmarkFixtures.jwtTokenProvider(verifiedCacheMaxSize);
+        token = tokenProvider.generateAccessToken(1L, "user1", "user1@example.com", "USER");
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtTokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(filter, "userStatusCache", new UserStatusCache(null, false, 30, 1000));
+    }
+
+    @Benchmark
+    public void filter(Blackhole blackhole) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/listings/user/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public String legacyTripleParse() {
+        SecretKey key1 = Keys.hmacShaKeyFor(BenchmarkFixtures.JWT_SECRET.getBytes());
+        Jwts.parser().verifyWith(key1).build().parseSignedClaims(token);
+        SecretKey key2 = Keys.hmacShaKeyFor(BenchmarkFixtures.JWT_SECRET.getBytes());
+        Claims claims = Jwts.parser().verifyWith(key2).build().parseSignedClaims(token).getPayload();
+        if (!"access".equals(claims.get("type"))) {
+            throw new IllegalStateException();
+        }
+        SecretKey key3 = Keys.hmacShaKeyFor(BenchmarkFixtures.JWT_SECRET.getBytes());
+        return Jwts.parser().verifyWith(key3).build().parseSignedClaims(token).getPayload().getSubject();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка токенов: с кэшем проверенных токенов и без него.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider cachingProvider;
+    private JwtTokenProvider uncachedProvider;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        cachingProvider = BenchmarkFixtures.jwtTokenProvider();
+        uncachedProvider = BenchmarkFixtures.jwtTokenProvider(0L);
+        accessToken = cachingProvider.generateAccessToken(1L, "user1", "user1@example.com", "USER");
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return cachingProvider.generateAccessToken(1L, "user1", "user1@example.com", "USER");
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return cachingProvider.generateRefreshToken("user1");
+    }
+
+    @Benchmark
+    public Claims parseAccessTokenCached() {
+        return cachingProvider.parseAccessToken(accessToken);
+    }
+
+    @Benchmark
+    public Claims parseAccessTokenUncached() {
+        return uncachedProvider.parseAccessToken(accessToken);
+    }
+}
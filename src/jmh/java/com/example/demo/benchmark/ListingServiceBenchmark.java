@@ -0,0 +1,79 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.ListingSummary;
+import com.example.demo.dto.SearchPage;
+import com.example.demo.search.InMemoryListingIndex;
+import com.example.demo.search.ListingSearchHit;
+import com.example.demo.service.ListingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Основные чтения ListingService на H2 в памяти (профиль dev) с заполненной таблицей объявлений.
+ * Объём данных задаётся через -Dbench.listings (по умолчанию 20 000).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private ListingService listingService;
+    private String deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int listings = Integer.getInteger("bench.listings", 20_000);
+
+        context = BenchmarkFixtures.startApplication(WebApplicationType.NONE);
+        BenchmarkFixtures.seedListings(context.getBean(JdbcTemplate.class), listings);
+        context.getBean(InMemoryListingIndex.class).rebuild();
+        listingService = context.getBean(ListingService.class);
+
+        // Курсор примерно из середины выборки: keyset-страница должна стоить столько же, сколько первая
+        String cursor = null;
+        for (int i = 0; i < listings / 2 / 100 && i < 50; i++) {
+            cursor = listingService.getActiveListingsPage(cursor, 100).getNextCursor();
+        }
+        deepCursor = cursor;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPage<ListingSummary> firstPage() {
+        return listingService.getActiveListingsPage(null, 20);
+    }
+
+    @Benchmark
+    public CursorPage<ListingSummary> deepCursorPage() {
+        return listingService.getActiveListingsPage(deepCursor, 20);
+    }
+
+    @Benchmark
+    public List<ListingSummary> listingsByCategory() {
+        return listingService.getListingsByCategory(1L);
+    }
+
+    @Benchmark
+    public SearchPage<ListingSummary> fullTextSearch() {
+        return listingService.searchListings("гитара", null, null, null, 0, 20);
+    }
+
+    @Benchmark
+    public List<ListingSearchHit> inCategorySearch() {
+        return listingService.searchInCategory(1L, "ноутбук новый", 20);
+    }
+}
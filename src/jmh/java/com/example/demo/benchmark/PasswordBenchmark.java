@@ -0,0 +1,57 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость работы с паролями: проверка правил (регулярные выражения UserService)
+ * и BCrypt с cost factor, который использует приложение.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordBenchmark {
+
+    private static final String PASSWORD = "Str0ng!Passw0rd";
+
+    @Param({"10"})
+    public int bcryptStrength;
+
+    private UserService userService;
+    private Method validatePassword;
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() throws Exception {
+        userService = new UserService(null, null, null);
+        validatePassword = UserService.class.getDeclaredMethod("validatePassword", String.class);
+        validatePassword.setAccessible(true);
+        encoder = new BCryptPasswordEncoder(bcryptStrength);
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public Object validatePassword() throws Exception {
+        return validatePassword.invoke(userService, PASSWORD);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean bcryptMatches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String bcryptEncode() {
+        return encoder.encode(PASSWORD);
+    }
+}
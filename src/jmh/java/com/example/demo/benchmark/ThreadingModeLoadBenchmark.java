@@ -0,0 +1,100 @@
+package com.example.demo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочное сравнение режимов потоков: приложение целиком (Tomcat, Security, JPA на H2)
+ * с платформенными и с виртуальными потоками, много параллельных HTTP-клиентов.
+ * <p>
+ * Число клиентов — опция JMH -t (по умолчанию 64), размер пула Tomcat в платформенном
+ * режиме — -Dbench.tomcat.threads (по умолчанию 200, как в Spring Boot).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(64)
+@Fork(1)
+public class ThreadingModeLoadBenchmark {
+
+    private static final String USERNAME = "loadtest";
+    private static final String PASSWORD = "Str0ng!Passw0rd";
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private String loginBody;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkFixtures.startApplication(WebApplicationType.SERVLET,
+                "--server.port=0",
+                "--server.ssl.enabled=false",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                // Все клиенты входят под одним именем с одного адреса
+                "--security.login-rate-limit.enabled=false",
+                // Сравниваем пропускную способность, а не отказы 503: очередь BCrypt вмещает всех клиентов
+                "--security.password.hashing.queue-capacity=1024",
+                "--security.password.hashing.timeout-ms=60000",
+                "--server.tomcat.threads.max=" + Integer.getInteger("bench.tomcat.threads", 200));
+        BenchmarkFixtures.seedListings(context.getBean(JdbcTemplate.class), Integer.getInteger("bench.listings", 5_000));
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        loginBody = "{\"username\":\"" + USERNAME + "\",\"password\":\"" + PASSWORD + "\"}";
+        String registerBody = "{\"username\":\"" + USERNAME + "\",\"email\":\"loadtest@example.com\","
+                + "\"password\":\"" + PASSWORD + "\"}";
+        HttpResponse<String> registered = client.send(post("/auth/register", registerBody),
+                HttpResponse.BodyHandlers.ofString());
+        if (registered.statusCode() != 201) {
+            throw new IllegalStateException("Registration failed: " + registered.body());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int listings() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/listings?size=20")).GET().build();
+        return expectOk(client.send(request, HttpResponse.BodyHandlers.ofByteArray()));
+    }
+
+    @Benchmark
+    public int login() throws IOException, InterruptedException {
+        return expectOk(client.send(post("/auth/login", loginBody), HttpResponse.BodyHandlers.ofByteArray()));
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static int expectOk(HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
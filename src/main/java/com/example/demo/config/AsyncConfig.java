@@ -0,0 +1,14 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Методы @Async выполняются на applicationTaskExecutor Spring Boot.
+ * При spring.threads.virtual.enabled=true он, как и планировщик @Scheduled и пул Tomcat,
+ * создаёт виртуальный поток на задачу; иначе это ограниченный пул платформенных потоков.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,14 @@
+package com.example.demo.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Кэши настраиваются через spring.cache.* (Caffeine, см. application.properties).
+ */
+@Configuration
+@EnableCaching
+@EnableScheduling
+public class CacheConfig {
+}
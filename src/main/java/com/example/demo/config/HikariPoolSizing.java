@@ -0,0 +1,55 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Размер пула основной базы, если spring.datasource.hikari.maximum-pool-size не задан явно:
+ * cores * 2 + 1 соединений (ядра сервера БД, по умолчанию — этого узла), но не больше доли узла
+ * в max_connections PostgreSQL за вычетом резерва для администрирования и миграций.
+ * Пул фиксированного размера: minimum-idle равен максимуму.
+ * Тот же расчёт задаёт пулы реплик (ReplicaDataSourceConfig), если datasource.replicas.pool-size не указан:
+ * у горячего резерва PostgreSQL max_connections не меньше, чем у основной базы.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.pool.auto-size", havingValue = "true")
+public class HikariPoolSizing implements BeanPostProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(HikariPoolSizing.class);
+
+    private static final String MAX_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+
+    private final Environment environment;
+
+    public HikariPoolSizing(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource && !environment.containsProperty(MAX_POOL_SIZE)) {
+            int size = poolSize();
+            dataSource.setMaximumPoolSize(size);
+            dataSource.setMinimumIdle(size);
+            logger.info("Hikari pool {} sized to {} connections", beanName, size);
+        }
+        return bean;
+    }
+
+    public int poolSize() {
+        int dbCores = environment.getProperty("datasource.pool.db-cores", Integer.class, 0);
+        int cores = dbCores > 0 ? dbCores : Runtime.getRuntime().availableProcessors();
+        int dbMaxConnections = environment.getProperty("datasource.pool.db-max-connections", Integer.class, 100);
+        int reserved = environment.getProperty("datasource.pool.reserved-connections", Integer.class, 10);
+        int instances = Math.max(1, environment.getProperty("datasource.pool.app-instances", Integer.class, 1));
+
+        int byCores = cores * 2 + 1;
+        int byDbLimit = Math.max(1, (dbMaxConnections - reserved) / instances);
+        return Math.min(byCores, byDbLimit);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Заполняет conversations и user_unread_counters по уже существующим сообщениям.
+ * Выполняется один раз: пока таблица conversations пуста, а сообщения есть.
+ */
+@Component
+public class InboxInitializer implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(InboxInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public InboxInitializer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        try {
+            Boolean needed = jdbcTemplate.queryForObject(
+                    "SELECT NOT EXISTS (SELECT 1 FROM conversations) AND EXISTS (SELECT 1 FROM messages)",
+                    Boolean.class);
+            if (!Boolean.TRUE.equals(needed)) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> backfill());
+        } catch (Exception e) {
+            logger.warn("Inbox backfill failed: {}", e.getMessage());
+        }
+    }
+
+    private void backfill() {
+        // Каждое сообщение даёт строку получателю (непрочитанное) и отправителю;
+        // последнее сообщение переписки — с наибольшим id
+        int conversations = jdbcTemplate.update(
+                "INSERT INTO conversations (owner_id, listing_id, counterpart_id, last_message_id, " +
+                "last_message_at, unread_count) " +
+                "SELECT owner_id, listing_id, counterpart_id, MAX(id), MAX(created_at), SUM(unread) FROM (" +
+                "  SELECT receiver_id AS owner_id, listing_id, sender_id AS counterpart_id, id, created_at, " +
+                "         CASE WHEN is_read THEN 0 ELSE 1 END AS unread FROM messages " +
+                "  UNION ALL " +
+                "  SELECT sender_id, listing_id, receiver_id, id, created_at, 0 FROM messages" +
+                ") t GROUP BY owner_id, listing_id, counterpart_id");
+        jdbcTemplate.update("DELETE FROM user_unread_counters");
+        int counters = jdbcTemplate.update(
+                "INSERT INTO user_unread_counters (user_id, unread_count) " +
+                "SELECT receiver_id, COUNT(*) FROM messages WHERE is_read = FALSE GROUP BY receiver_id");
+        logger.info("Inbox backfilled: {} conversations, {} unread counters", conversations, counters);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.config;
+
+import com.example.demo.datasource.ReadYourWritesTracker;
+import com.example.demo.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Чтение с реплик PostgreSQL. Включается, если задан datasource.replicas.urls:
+ * транзакции readOnly идут на реплики, остальные — в spring.datasource.url.
+ * Без реплик используется обычный DataSource Spring Boot.
+ */
+@Configuration
+@ConditionalOnExpression("!'${datasource.replicas.urls:}'.isBlank()")
+public class ReplicaDataSourceConfig {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${datasource.replicas.urls}") String urls,
+            @Value("${datasource.replicas.username:}") String username,
+            @Value("${datasource.replicas.password:}") String password,
+            @Value("${datasource.replicas.pool-size:0}") int poolSize,
+            @Value("${datasource.replicas.lag-query:}") String lagQuery,
+            @Value("${datasource.replicas.max-lag-ms:10000}") long maxLagMs,
+            @Value("${datasource.replicas.sticky-ms:5000}") long stickyMs,
+            MeterRegistry meterRegistry,
+            ObjectProvider<HikariPoolSizing> poolSizing) {
+        HikariPoolSizing sizing = poolSizing.getIfAvailable();
+        boolean autoSized = poolSize <= 0 && sizing != null;
+        int replicaPoolSize = poolSize > 0 ? poolSize : autoSized ? sizing.poolSize() : DEFAULT_POOL_SIZE;
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        int index = 1;
+        for (String url : urls.split(",")) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + index);
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            // Свойства драйвера (prepareThreshold и др.) — как у основной базы
+            replica.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            if (autoSized) {
+                replica.setMinimumIdle(replicaPoolSize);
+            }
+            replica.setReadOnly(true);
+            // Недоступная реплика не должна задерживать старт и запросы: проверка здоровья её исключит
+            replica.setInitializationFailTimeout(-1);
+            replica.setConnectionTimeout(2000);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(replica.getPoolName(), replica);
+            index++;
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                new ReadYourWritesTracker(Duration.ofMillis(stickyMs), 100_000), lagQuery, maxLagMs, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
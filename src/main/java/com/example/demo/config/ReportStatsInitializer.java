@@ -0,0 +1,46 @@
+package com.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Заполняет listing_report_stats по уже существующим жалобам.
+ * Выполняется один раз: пока таблица пуста, а жалобы есть. Уже набранные жалобы
+ * объявления не скрывают — автоскрытие срабатывает только на новых.
+ */
+@Component
+public class ReportStatsInitializer implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportStatsInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReportStatsInitializer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        try {
+            Boolean needed = jdbcTemplate.queryForObject(
+                    "SELECT NOT EXISTS (SELECT 1 FROM listing_report_stats) AND EXISTS (SELECT 1 FROM reports)",
+                    Boolean.class);
+            if (!Boolean.TRUE.equals(needed)) {
+                return;
+            }
+            Integer rows = transactionTemplate.execute(status -> jdbcTemplate.update(
+                    "INSERT INTO listing_report_stats (listing_id, pending_count, total_count, last_reported_at) " +
+                    "SELECT listing_id, SUM(CASE WHEN status = 'PENDING' THEN 1 ELSE 0 END), COUNT(*), MAX(created_at) " +
+                    "FROM reports GROUP BY listing_id"));
+            logger.info("Report stats backfilled for {} listings", rows);
+        } catch (Exception e) {
+            logger.warn("Report stats backfill failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.config;
+
+import com.example.demo.repository.ListingSearchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Готовит полнотекстовый индекс по listings(title, description) до запуска веб-сервера.
+ * PostgreSQL: колонку search_vector и GIN-индекс создаёт миграция db/postgres/listings-search-vector.sql
+ * (CREATE INDEX CONCURRENTLY), здесь только проверяется, что они есть и индекс валиден.
+ * H2: встроенный индекс FullText создаётся на месте — таблицы уже созданы Hibernate (ddl-auto=update).
+ * Если индекс не готов, поиск отключается и отвечает 503, остальное приложение работает.
+ */
+@Component
+public class SearchIndexInitializer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexInitializer.class);
+
+    static final String MIGRATION = "db/postgres/listings-search-vector.sql";
+
+    static final String SEARCH_VECTOR_EXPRESSION = "SELECT pg_get_expr(d.adbin, d.adrelid) FROM pg_attrdef d " +
+            "JOIN pg_attribute a ON a.attrelid = d.adrelid AND a.attnum = d.adnum " +
+            "WHERE a.attrelid = to_regclass('listings') AND a.attname = 'search_vector' AND NOT a.attisdropped";
+
+    static final String SEARCH_INDEX_VALID = "SELECT EXISTS (SELECT 1 FROM pg_index " +
+            "WHERE indexrelid = to_regclass('idx_listings_search_vector') AND indisvalid AND indisready)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ListingSearchRepository listingSearchRepository;
+
+    public SearchIndexInitializer(JdbcTemplate jdbcTemplate, ListingSearchRepository listingSearchRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.listingSearchRepository = listingSearchRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        boolean available;
+        try {
+            available = listingSearchRepository.isPostgres() ? checkPostgres() : initH2();
+        } catch (Exception e) {
+            logger.error("Full-text index initialization failed, search is disabled", e);
+            available = false;
+        }
+        listingSearchRepository.setAvailable(available);
+    }
+
+    private boolean checkPostgres() {
+        String cfg = listingSearchRepository.getTsConfig();
+        List<String> expression = jdbcTemplate.queryForList(SEARCH_VECTOR_EXPRESSION, String.class);
+        if (expression.isEmpty()) {
+            logger.error("Column listings.search_vector is missing, search is disabled; apply {}", MIGRATION);
+            return false;
+        }
+        // Запрос строится с той же конфигурацией — иначе лексемы вектора и запроса не совпадут
+        if (!expression.get(0).contains("'" + cfg + "'")) {
+            logger.error("listings.search_vector is not built with text search config '{}', search is disabled: {}",
+                    cfg, expression.get(0));
+            return false;
+        }
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(SEARCH_INDEX_VALID, Boolean.class))) {
+            logger.error("Index idx_listings_search_vector is missing or invalid, search is disabled; apply {}",
+                    MIGRATION);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean initH2() {
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS FT_INIT FOR 'org.h2.fulltext.FullText.init'");
+        jdbcTemplate.execute("CALL FT_INIT()");
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM FT.INDEXES WHERE \"SCHEMA\" = 'PUBLIC' AND \"TABLE\" = 'LISTINGS'",
+                Integer.class);
+        if (existing == null || existing == 0) {
+            // Индексирует уже существующие строки и вешает триггеры на дальнейшие изменения
+            jdbcTemplate.execute("CALL FT_CREATE_INDEX('PUBLIC', 'LISTINGS', 'TITLE,DESCRIPTION')");
+        }
+        return true;
+    }
+}
@@ -1,26 +1,45 @@
 package com.example.demo.config;
 
+import com.example.demo.security.BCryptStrengthCalibrator;
+import com.example.demo.security.BoundedPasswordEncoder;
 import com.example.demo.security.CustomUserDetailsService;
+import com.example.demo.security.HashUpgradeTolerantAuthenticationProvider;
 import com.example.demo.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManagers;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.util.List;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private static final String BCRYPT_ID = "bcrypt";
+
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -29,16 +48,43 @@ public class SecurityConfig {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
     }
 
+    /**
+     * Новые хеши — {bcrypt} с текущей стоимостью; хеши без префикса (data.sql, старые регистрации)
+     * проверяются обычным BCrypt. При bcrypt-target-ms > 0 стоимость подбирается замером при старте,
+     * bcrypt-strength служит нижней границей. Хеши со старыми параметрами перехешируются при входе
+     * (UserService.upgradePasswordHash). Хеширование выполняется на отдельном ограниченном пуле,
+     * pool-size=0 — по числу процессоров.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int minStrength,
+                                           @Value("${security.password.bcrypt-max-strength:14}") int maxStrength,
+                                           @Value("${security.password.bcrypt-target-ms:0}") long targetMs,
+                                           @Value("${security.password.hashing.pool-size:0}") int poolSize,
+                                           @Value("${security.password.hashing.queue-capacity:32}") int queueCapacity,
+                                           @Value("${security.password.hashing.timeout-ms:1000}") long timeoutMs,
+                                           MeterRegistry meterRegistry) {
+        int strength = targetMs > 0
+                ? BCryptStrengthCalibrator.calibrate(targetMs, minStrength, maxStrength)
+                : minStrength;
+        Gauge.builder("password.hashing.bcrypt.strength", () -> strength)
+                .description("BCrypt cost factor used for new password hashes")
+                .register(meterRegistry);
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(BCRYPT_ID,
+                Map.of(BCRYPT_ID, new BCryptPasswordEncoder(strength)));
+        delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegating, threads, queueCapacity, timeoutMs, meterRegistry);
     }
 
+    // Отказ пула BCrypt при перехешировании не ломает вход через форму с верным паролем
     @Bean
     public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+        DaoAuthenticationProvider authProvider = new HashUpgradeTolerantAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -49,7 +95,9 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   @Value("${security.metrics.allowed-addresses:}") List<String> metricsAddresses)
+            throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.disable())
@@ -76,7 +124,9 @@ public class SecurityConfig {
                         .logoutSuccessUrl("/login?logout=true")
                         .permitAll())
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/", "/hello", "/login", "/register", "/auth/register", "/auth/login", "/auth/refresh").permitAll()
+                        // Повторная ASYNC-диспетчеризация потока (SSE) уже прошла проверку на исходном запросе
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/", "/hello", "/login", "/register", "/auth/register", "/auth/login", "/auth/refresh", "/auth/logout").permitAll()
                         .requestMatchers("/listings/**").permitAll()
                         .requestMatchers("/my-listings", "/listings/create", "/listings/*/edit", "/messages").permitAll()
                         .requestMatchers("/h2-console/**").permitAll()
@@ -109,6 +159,13 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.DELETE, "/api/users/**").hasRole("ADMIN")
 
                         .requestMatchers("/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/health").permitAll()
+                        // Сборщик метрик ходит без токена — пускаем его по адресу
+                        .requestMatchers("/actuator/prometheus").access(AuthorizationManagers.anyOf(
+                                AuthorityAuthorizationManager.hasRole("ADMIN"),
+                                fromAddresses(metricsAddresses)))
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                         .anyRequest().authenticated()
                 )
@@ -116,4 +173,14 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    private static AuthorizationManager<RequestAuthorizationContext> fromAddresses(List<String> addresses) {
+        List<IpAddressMatcher> matchers = addresses.stream()
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+        return (authentication, context) -> new AuthorizationDecision(
+                matchers.stream().anyMatch(matcher -> matcher.matches(context.getRequest())));
+    }
 }
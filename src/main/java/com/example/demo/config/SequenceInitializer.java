@@ -1,18 +1,34 @@
 package com.example.demo.config;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.CommandLineRunner;
+import com.example.demo.entity.Listing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+/**
+ * Выравнивает последовательности идентификаторов по уже существующим строкам. Выполняется
+ * после создания всех бинов (схема и data.sql уже применены), но до запуска веб-сервера:
+ * ни один запрос не получит идентификатор, занятый строкой, вставленной в обход последовательности.
+ */
 @Component
-public class SequenceInitializer implements CommandLineRunner {
+public class SequenceInitializer implements SmartInitializingSingleton {
 
-    @Autowired
-    private JdbcTemplate jdbcTemplate;
+    private static final Logger logger = LoggerFactory.getLogger(SequenceInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
 
     @Override
-    public void run(String... args) {
+    public void afterSingletonsInstantiated() {
+        alignSequences();
+    }
+
+    public void alignSequences() {
         try {
             Long maxUserId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class);
             if (maxUserId != null && maxUserId > 0) {
@@ -25,6 +41,27 @@ public class SequenceInitializer implements CommandLineRunner {
             }
         } catch (Exception e) {
         }
+        alignListingSequence();
     }
-}
 
+    /**
+     * listings_seq отдаёт верхнюю границу блока из Listing.ID_ALLOCATION_SIZE идентификаторов
+     * (оптимизатор pooled). Строки, вставленные в обход неё (data.sql, записи времён IDENTITY),
+     * могут оказаться выше — тогда последовательность переводится за MAX(id). Если она уже впереди,
+     * её не трогаем: другой узел может раздавать выделенный ранее блок. Ошибка останавливает запуск:
+     * с отстающей последовательностью вставки упадут на первичном ключе.
+     */
+    private void alignListingSequence() {
+        try {
+            Long maxListingId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM listings", Long.class);
+            Long next = jdbcTemplate.queryForObject("SELECT nextval('listings_seq')", Long.class);
+            if (maxListingId != null && maxListingId > 0 && next != null && next - Listing.ID_ALLOCATION_SIZE < maxListingId) {
+                long restart = maxListingId + Listing.ID_ALLOCATION_SIZE;
+                jdbcTemplate.execute("ALTER SEQUENCE listings_seq RESTART WITH " + restart);
+                logger.info("listings_seq moved past existing listings, restarts with {}", restart);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not align listings_seq with existing listings", e);
+        }
+    }
+}
@@ -1,43 +1,174 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.ListingSummary;
+import com.example.demo.dto.ReportSummary;
+import com.example.demo.entity.Category;
 import com.example.demo.service.ListingService;
 import com.example.demo.service.CategoryService;
 import com.example.demo.service.ReportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Страницы админки. Фильтры, сортировка и разбиение на страницы выполняются в базе,
+ * в модель попадает не больше одной страницы (size ограничен listing.page.max-size).
+ * Параметры: page (с нуля), size, sort, dir (asc|desc); даты from/to — включительно.
+ */
 @Controller
 @RequestMapping("/admin")
 public class AdminController {
+
+    private static final Set<String> LISTING_SORTS = Set.of("createdAt", "updatedAt", "price", "title", "id");
+    private static final Set<String> CATEGORY_SORTS = Set.of("name", "id");
+    private static final Set<String> REPORT_SORTS = Set.of("createdAt", "status", "id");
+
     private final ListingService listingService;
     private final CategoryService categoryService;
     private final ReportService reportService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
     public AdminController(ListingService listingService,
                           CategoryService categoryService,
-                          ReportService reportService) {
+                          ReportService reportService,
+                          @Value("${listing.page.default-size:20}") int defaultPageSize,
+                          @Value("${listing.page.max-size:100}") int maxPageSize) {
         this.listingService = listingService;
         this.categoryService = categoryService;
         this.reportService = reportService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @GetMapping("/listings")
-    public String adminListings(Model model) {
-        model.addAttribute("listings", listingService.getAllListings());
+    public String adminListings(@RequestParam(required = false) Long categoryId,
+                                @RequestParam(required = false) String username,
+                                @RequestParam(required = false) Boolean active,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                @RequestParam(defaultValue = "0") int page,
+                                @RequestParam(required = false) Integer size,
+                                @RequestParam(defaultValue = "createdAt") String sort,
+                                @RequestParam(defaultValue = "desc") String dir,
+                                HttpServletRequest request,
+                                Model model) {
+        checkDateRange(from, to);
+        Page<ListingSummary> listings = listingService.getAdminListingsPage(categoryId, trimToNull(username), active,
+                startOfDay(from), endOfDay(to), pageRequest(page, size, sort, dir, LISTING_SORTS));
+        model.addAttribute("listings", listings.getContent());
+        // Справочник для фильтра: категорий немного, список берётся из кэша
+        model.addAttribute("categories", categoryService.getAllCategories());
+        addPage(model, listings, request);
         return "admin/listings";
     }
 
     @GetMapping("/categories")
-    public String adminCategories(Model model) {
-        model.addAttribute("categories", categoryService.getAllCategories());
+    public String adminCategories(@RequestParam(required = false) String name,
+                                  @RequestParam(defaultValue = "0") int page,
+                                  @RequestParam(required = false) Integer size,
+                                  @RequestParam(defaultValue = "name") String sort,
+                                  @RequestParam(defaultValue = "asc") String dir,
+                                  HttpServletRequest request,
+                                  Model model) {
+        Page<Category> categories = categoryService.getCategoriesPage(trimToNull(name),
+                pageRequest(page, size, sort, dir, CATEGORY_SORTS));
+        model.addAttribute("categories", categories.getContent());
+        addPage(model, categories, request);
         return "admin/categories";
     }
 
     @GetMapping("/reports")
-    public String adminReports(Model model) {
-        model.addAttribute("reports", reportService.getAllReports());
+    public String adminReports(@RequestParam(required = false) String status,
+                               @RequestParam(required = false) Long categoryId,
+                               @RequestParam(required = false) String username,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                               @RequestParam(defaultValue = "0") int page,
+                               @RequestParam(required = false) Integer size,
+                               @RequestParam(defaultValue = "createdAt") String sort,
+                               @RequestParam(defaultValue = "desc") String dir,
+                               HttpServletRequest request,
+                               Model model) {
+        checkDateRange(from, to);
+        Page<ReportSummary> reports = reportService.getAdminReportsPage(trimToNull(status), categoryId,
+                trimToNull(username), startOfDay(from), endOfDay(to), pageRequest(page, size, sort, dir, REPORT_SORTS));
+        model.addAttribute("reports", reports.getContent());
+        model.addAttribute("categories", categoryService.getAllCategories());
+        addPage(model, reports, request);
         return "admin/reports";
     }
+
+    private Pageable pageRequest(int page, Integer size, String sort, String dir, Set<String> sortable) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page number must not be negative");
+        }
+        if (size != null && size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        if (!sortable.contains(sort)) {
+            throw new IllegalArgumentException("Unsupported sort property: " + sort + " " + sortable);
+        }
+        Sort.Direction direction = Sort.Direction.fromOptionalString(dir)
+                .orElseThrow(() -> new IllegalArgumentException("Sort direction must be asc or desc"));
+        int pageSize = size != null ? Math.min(size, maxPageSize) : defaultPageSize;
+        // id — второй ключ, чтобы строки с равным значением не переходили между страницами
+        Sort order = "id".equals(sort)
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, sort).and(Sort.by(direction, "id"));
+        return PageRequest.of(page, pageSize, order);
+    }
+
+    private static void addPage(Model model, Page<?> page, HttpServletRequest request) {
+        model.addAttribute("page", page);
+        if (page.hasPrevious()) {
+            model.addAttribute("prevUrl", pageUrl(request, page.getNumber() - 1));
+        }
+        if (page.hasNext()) {
+            model.addAttribute("nextUrl", pageUrl(request, page.getNumber() + 1));
+        }
+    }
+
+    private static String pageUrl(HttpServletRequest request, int page) {
+        return UriComponentsBuilder.fromPath(request.getRequestURI())
+                .query(request.getQueryString())
+                .replaceQueryParam("page", page)
+                // Строка запроса уже закодирована
+                .build(true)
+                .toUriString();
+    }
+
+    private static void checkDateRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Date 'from' must not be after 'to'");
+        }
+    }
+
+    private static LocalDateTime startOfDay(LocalDate date) {
+        return date != null ? date.atStartOfDay() : null;
+    }
+
+    // Граница исключается: to включительно означает created_at < начала следующего дня
+    private static LocalDateTime endOfDay(LocalDate date) {
+        return date != null ? date.plusDays(1).atStartOfDay() : null;
+    }
+
+    private static String trimToNull(String value) {
+        return StringUtils.hasText(value) ? value.trim() : null;
+    }
 }
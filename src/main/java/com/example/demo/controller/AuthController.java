@@ -2,14 +2,17 @@ package com.example.demo.controller;
 
 import com.example.demo.dto.TokenPairResponse;
 import com.example.demo.entity.User;
+import com.example.demo.security.InvalidRefreshTokenException;
+import com.example.demo.security.LoginRateLimiter;
+import com.example.demo.security.PasswordHashingRejectedException;
 import com.example.demo.service.UserService;
 import com.example.demo.service.TokenService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -25,7 +28,7 @@ public class AuthController {
     private TokenService tokenService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private LoginRateLimiter loginRateLimiter;
 
     /**
      * POST /auth/register
@@ -41,6 +44,8 @@ public class AuthController {
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body(new ErrorResponse("Ошибка валидации пароля", e.getMessage()));
+        } catch (PasswordHashingRejectedException e) {
+            return serviceUnavailable(e);
         } catch (RuntimeException e) {
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
@@ -53,35 +58,27 @@ public class AuthController {
      * Проверяет учётные данные и возвращает пару (access + refresh) токенов
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        long retryAfter = loginRateLimiter.checkLogin(httpRequest.getRemoteAddr(), request.getUsername());
+        if (retryAfter > 0) {
+            logger.warn("Login rate limit exceeded for username {} from {}", request.getUsername(), httpRequest.getRemoteAddr());
+            return tooManyRequests(retryAfter);
+        }
+
+        // Токен имени, забранный checkLogin, остаётся списанным только за неверный пароль
+        boolean failedAttempt = false;
         try {
             logger.debug("Attempting login for username: {}", request.getUsername());
-            
-            User user;
-            try {
-                user = userService.findByUsername(request.getUsername());
-                logger.debug("User found: {}", user.getUsername());
-            } catch (RuntimeException e) {
-                logger.warn("User not found: {}", request.getUsername());
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(new ErrorResponse("Ошибка входа", "Неверные учетные данные"));
-            }
 
+            User user = userService.verifyCredentials(request.getUsername(), request.getPassword());
             if (user == null) {
-                logger.warn("User is null for username: {}", request.getUsername());
+                failedAttempt = true;
+                logger.warn("Invalid credentials for username: {}", request.getUsername());
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(new ErrorResponse("Ошибка входа", "Неверные учетные данные"));
             }
 
-            boolean passwordMatches = passwordEncoder.matches(request.getPassword(), user.getPassword());
-            logger.debug("Password match result: {}", passwordMatches);
-            logger.debug("Stored password hash: {}", user.getPassword() != null ? user.getPassword().substring(0, Math.min(20, user.getPassword().length())) + "..." : "null");
-            
-            if (!passwordMatches) {
-                logger.warn("Password mismatch for user: {}", request.getUsername());
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(new ErrorResponse("Ошибка входа", "Неверные учетные данные"));
-            }
+            userService.upgradePasswordHash(user, request.getPassword());
 
             TokenService.TokenPair tokenPair = tokenService.createTokenPair(user);
 
@@ -93,18 +90,44 @@ public class AuthController {
 
             return ResponseEntity.ok(response);
 
+        } catch (PasswordHashingRejectedException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponse("Ошибка сервера", e.getMessage()));
+        } finally {
+            if (!failedAttempt) {
+                loginRateLimiter.refundLogin(request.getUsername());
+            }
         }
     }
 
+    // Пул BCrypt перегружен — отвечаем сразу, не занимая поток запроса
+    private ResponseEntity<?> serviceUnavailable(PasswordHashingRejectedException e) {
+        logger.warn("Password hashing rejected: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse("Сервис перегружен", e.getMessage()));
+    }
+
+    private ResponseEntity<?> tooManyRequests(long retryAfterSeconds) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", String.valueOf(retryAfterSeconds))
+                .body(new ErrorResponse("Слишком много попыток", "Повторите попытку через " + retryAfterSeconds + " с"));
+    }
+
     /**
      * POST /auth/refresh
      * Получает refresh-токен, выдаёт новую пару (access + refresh) токенов
      */
     @PostMapping("/refresh")
-    public ResponseEntity<?> refresh(@RequestBody RefreshTokenRequest request) {
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenRequest request, HttpServletRequest httpRequest) {
+        long retryAfter = loginRateLimiter.checkRefresh(httpRequest.getRemoteAddr());
+        if (retryAfter > 0) {
+            logger.warn("Refresh rate limit exceeded from {}", httpRequest.getRemoteAddr());
+            return tooManyRequests(retryAfter);
+        }
+
         try {
             if (request.getRefreshToken() == null || request.getRefreshToken().isEmpty()) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -123,15 +146,30 @@ public class AuthController {
 
             return ResponseEntity.ok(response);
 
-        } catch (RuntimeException e) {
+        } catch (InvalidRefreshTokenException e) {
+            // Прочие ошибки (БД и т.п.) — не 401: их обрабатывает GlobalExceptionHandler
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ErrorResponse("Ошибка", e.getMessage()));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ErrorResponse("Ошибка сервера", e.getMessage()));
         }
     }
 
+    /**
+     * POST /auth/logout
+     * Отзывает refresh-токен вместе со всеми токенами, полученными из того же входа
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody RefreshTokenRequest request) {
+        if (request.getRefreshToken() == null || request.getRefreshToken().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse("Ошибка", "Refresh token is required"));
+        }
+        if (!tokenService.revokeRefreshToken(request.getRefreshToken())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ErrorResponse("Ошибка", "Invalid refresh token"));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     // Inner DTOs
     public static class LoginRequest {
         private String username;
@@ -1,5 +1,6 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CategorySummary;
 import com.example.demo.entity.Category;
 import com.example.demo.service.CategoryService;
 import org.springframework.http.HttpStatus;
@@ -19,12 +20,12 @@ public class CategoryController {
     }
 
     @GetMapping
-    public List<Category> getAllCategories() {
+    public List<CategorySummary> getAllCategories() {
         return categoryService.getAllCategories();
     }
 
     @GetMapping("/{id}")
-    public Category getCategoryById(@PathVariable Long id) {
+    public CategorySummary getCategoryById(@PathVariable Long id) {
         return categoryService.getCategoryById(id);
     }
 
@@ -1,11 +1,18 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.ListingImportResult;
+import com.example.demo.dto.ListingSummary;
+import com.example.demo.dto.SearchPage;
+import com.example.demo.entity.Category;
 import com.example.demo.entity.Listing;
+import com.example.demo.search.ListingSearchHit;
+import com.example.demo.security.AuthenticatedUser;
+import com.example.demo.service.ListingImportService;
 import com.example.demo.service.ListingService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -15,38 +22,55 @@ import java.util.List;
 public class ListingController {
 
     private final ListingService listingService;
-    private final com.example.demo.service.UserService userService;
+    private final ListingImportService listingImportService;
 
-    public ListingController(ListingService listingService,
-                            com.example.demo.service.UserService userService) {
+    public ListingController(ListingService listingService, ListingImportService listingImportService) {
         this.listingService = listingService;
-        this.userService = userService;
+        this.listingImportService = listingImportService;
     }
 
     @GetMapping
-    public List<Listing> getAllActiveListings() {
-        return listingService.getAllActiveListings();
+    public CursorPage<ListingSummary> getActiveListings(@RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer size) {
+        return listingService.getActiveListingsPage(cursor, size);
+    }
+
+    @GetMapping("/search")
+    public SearchPage<ListingSummary> searchListings(@RequestParam("q") String query,
+                                              @RequestParam(required = false) Long categoryId,
+                                              @RequestParam(required = false) Double minPrice,
+                                              @RequestParam(required = false) Double maxPrice,
+                                              @RequestParam(required = false) Integer page,
+                                              @RequestParam(required = false) Integer size) {
+        return listingService.searchListings(query, categoryId, minPrice, maxPrice, page, size);
     }
 
     @GetMapping("/all")
-    public List<Listing> getAllListings() {
+    public List<ListingSummary> getAllListings() {
         return listingService.getAllListings();
     }
 
     @GetMapping("/category/{categoryId}")
-    public List<Listing> getListingsByCategory(@PathVariable Long categoryId) {
+    public List<ListingSummary> getListingsByCategory(@PathVariable Long categoryId) {
         return listingService.getListingsByCategory(categoryId);
     }
 
+    @GetMapping("/category/{categoryId}/search")
+    public List<ListingSearchHit> searchInCategory(@PathVariable Long categoryId,
+                                                   @RequestParam("q") String query,
+                                                   @RequestParam(required = false) Integer size) {
+        return listingService.searchInCategory(categoryId, query, size);
+    }
+
     @GetMapping("/user/{userId}")
-    public List<Listing> getListingsByUser(@PathVariable Long userId) {
+    public List<ListingSummary> getListingsByUser(@PathVariable Long userId) {
         return listingService.getListingsByUser(userId);
     }
 
     @GetMapping("/user/me")
-    public List<Listing> getMyListings(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        Long userId = userService.findByUsername(userDetails.getUsername()).getId();
+    public List<ListingSummary> getMyListings(Authentication authentication) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        Long userId = currentUser.getId();
         return listingService.getListingsByUser(userId);
     }
 
@@ -58,8 +82,8 @@ public class ListingController {
     @PostMapping
     public ResponseEntity<?> createListing(@RequestBody ListingRequest request, Authentication authentication) {
         try {
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            Long userId = userService.findByUsername(userDetails.getUsername()).getId();
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+            Long userId = currentUser.getId();
             
             Listing listing = new Listing();
             listing.setTitle(request.getTitle());
@@ -74,13 +98,45 @@ public class ListingController {
         }
     }
 
+    /**
+     * Массовый импорт объявлений текущего пользователя (массив ListingRequest).
+     * Отвечает 200 и отчётом даже при частичном успехе: какие строки отклонены и какие пакеты откатились.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importListings(@RequestBody List<ListingRequest> requests, Authentication authentication) {
+        try {
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+            Long userId = currentUser.getId();
+
+            List<Listing> listings = requests.stream().map(request -> {
+                if (request == null) {
+                    return null;
+                }
+                Listing listing = new Listing();
+                listing.setTitle(request.getTitle());
+                listing.setDescription(request.getDescription());
+                listing.setPrice(request.getPrice());
+                if (request.getCategoryId() != null) {
+                    listing.setCategory(new Category());
+                    listing.getCategory().setId(request.getCategoryId());
+                }
+                return listing;
+            }).toList();
+
+            ListingImportResult result = listingImportService.importListings(userId, listings);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse("Error", e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateListing(@PathVariable Long id, 
                                           @RequestBody ListingRequest request,
                                           Authentication authentication) {
         try {
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            com.example.demo.entity.User currentUser = userService.findByUsername(userDetails.getUsername());
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
             Long userId = currentUser.getId();
             String userRole = currentUser.getRole();
             
@@ -107,8 +163,7 @@ public class ListingController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteListing(@PathVariable Long id, Authentication authentication) {
         try {
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            com.example.demo.entity.User currentUser = userService.findByUsername(userDetails.getUsername());
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
             Long userId = currentUser.getId();
             String userRole = currentUser.getRole();
             
@@ -126,8 +181,7 @@ public class ListingController {
     @PostMapping("/{id}/deactivate")
     public ResponseEntity<?> deactivateListing(@PathVariable Long id, Authentication authentication) {
         try {
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            com.example.demo.entity.User currentUser = userService.findByUsername(userDetails.getUsername());
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
             Long userId = currentUser.getId();
             String userRole = currentUser.getRole();
             
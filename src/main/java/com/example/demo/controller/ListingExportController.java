@@ -0,0 +1,113 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.ListingExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Полная выгрузка объявлений для администраторов: GET /api/admin/listings/export?format=csv|ndjson
+ * с необязательными фильтрами categoryId, userId, active. Строки пишутся в ответ (StreamingResponseBody)
+ * по мере чтения из базы, память не зависит от размера таблицы. При Accept-Encoding: gzip ответ сжимается.
+ */
+@RestController
+@RequestMapping("/api/admin/listings")
+public class ListingExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingExportController.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ListingExportService listingExportService;
+
+    public ListingExportController(ListingExportService listingExportService) {
+        this.listingExportService = listingExportService;
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportListings(@RequestParam(defaultValue = ListingExportService.FORMAT_CSV) String format,
+                                                                @RequestParam(required = false) Long categoryId,
+                                                                @RequestParam(required = false) Long userId,
+                                                                @RequestParam(required = false) Boolean active,
+                                                                HttpServletRequest request) {
+        if (!ListingExportService.isSupportedFormat(format)) {
+            // Ответ 400 формирует GlobalExceptionHandler: тело этого метода — только поток выгрузки
+            throw new IllegalArgumentException("Unsupported export format: " + format + " (csv, ndjson)");
+        }
+
+        boolean csv = ListingExportService.FORMAT_CSV.equals(format);
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        // Тело пишется асинхронно, после выхода из метода: поток запроса не ждёт всю выгрузку
+        StreamingResponseBody body = outputStream -> {
+            long started = System.nanoTime();
+            OutputStream out = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : outputStream;
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                long rows = listingExportService.export(format, categoryId, userId, active, writer);
+                logger.info("Exported {} listings as {}{} in {} ms", rows, format, gzip ? " (gzip)" : "",
+                        (System.nanoTime() - started) / 1_000_000);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"listings." + format + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * gzip допустим, если в Accept-Encoding указан gzip (x-gzip) или * с q > 0.
+     * Явный gzip;q=0 запрещает сжатие, даже если * разрешён.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] params = coding.split(";");
+            String name = params[0].trim().toLowerCase(Locale.ROOT);
+            boolean allowed = true;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim().toLowerCase(Locale.ROOT);
+                if (param.startsWith("q=")) {
+                    allowed = quality(param.substring(2).trim()) > 0;
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = allowed;
+            } else if (name.equals("*")) {
+                wildcard = allowed;
+            }
+        }
+        return gzip != null ? gzip : wildcard;
+    }
+
+    private static double quality(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
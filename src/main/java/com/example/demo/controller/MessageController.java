@@ -1,12 +1,17 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.ConversationSummary;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.MessageSummary;
 import com.example.demo.entity.Message;
+import com.example.demo.security.AuthenticatedUser;
 import com.example.demo.service.MessageService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -15,38 +20,68 @@ import java.util.List;
 public class MessageController {
 
     private final MessageService messageService;
-    private final com.example.demo.service.UserService userService;
 
-    public MessageController(MessageService messageService,
-                            com.example.demo.service.UserService userService) {
+    public MessageController(MessageService messageService) {
         this.messageService = messageService;
-        this.userService = userService;
     }
 
     @GetMapping("/listing/{listingId}")
-    public List<Message> getMessagesByListing(@PathVariable Long listingId) {
+    public List<MessageSummary> getMessagesByListing(@PathVariable Long listingId) {
         return messageService.getMessagesByListing(listingId);
     }
 
     @GetMapping("/listing/{listingId}/conversation")
-    public List<Message> getConversation(@PathVariable Long listingId, Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        Long userId = userService.findByUsername(userDetails.getUsername()).getId();
+    public List<MessageSummary> getConversation(@PathVariable Long listingId, Authentication authentication) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        Long userId = currentUser.getId();
         return messageService.getConversation(listingId, userId);
     }
 
+    @GetMapping("/inbox")
+    public CursorPage<ConversationSummary> getInbox(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size,
+                                                    Authentication authentication) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        Long userId = currentUser.getId();
+        return messageService.getInbox(userId, cursor, size);
+    }
+
+    @GetMapping("/unread-count")
+    public UnreadCountResponse getUnreadCount(Authentication authentication) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        Long userId = currentUser.getId();
+        return new UnreadCountResponse(messageService.getUnreadCount(userId));
+    }
+
+    /**
+     * Поток новых входящих сообщений (text/event-stream). При переподключении браузер сам
+     * передаёт Last-Event-ID; клиенты без EventSource могут указать lastEventId параметром.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMessages(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+                                     @RequestParam(required = false) Long lastEventId,
+                                     Authentication authentication) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        Long userId = currentUser.getId();
+        return messageService.openStream(userId, lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
     @GetMapping("/sent")
-    public List<Message> getSentMessages(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        Long userId = userService.findByUsername(userDetails.getUsername()).getId();
-        return messageService.getMessagesBySender(userId);
+    public List<MessageSummary> getSentMessages(@RequestParam(required = false) Integer page,
+                                                @RequestParam(required = false) Integer size,
+                                                Authentication authentication) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        Long userId = currentUser.getId();
+        return messageService.getMessagesBySender(userId, page, size);
     }
 
     @GetMapping("/received")
-    public List<Message> getReceivedMessages(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        Long userId = userService.findByUsername(userDetails.getUsername()).getId();
-        return messageService.getMessagesByReceiver(userId);
+    public List<MessageSummary> getReceivedMessages(@RequestParam(required = false) Integer page,
+                                                    @RequestParam(required = false) Integer size,
+                                                    Authentication authentication) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        Long userId = currentUser.getId();
+        return messageService.getMessagesByReceiver(userId, page, size);
     }
 
     @GetMapping("/{id}")
@@ -57,8 +92,8 @@ public class MessageController {
     @PostMapping
     public ResponseEntity<?> createMessage(@RequestBody MessageRequest request, Authentication authentication) {
         try {
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            Long senderId = userService.findByUsername(userDetails.getUsername()).getId();
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+            Long senderId = currentUser.getId();
             
             Message message = new Message();
             message.setText(request.getText());
@@ -74,8 +109,8 @@ public class MessageController {
     @PostMapping("/{id}/read")
     public ResponseEntity<?> markAsRead(@PathVariable Long id, Authentication authentication) {
         try {
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            Long userId = userService.findByUsername(userDetails.getUsername()).getId();
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+            Long userId = currentUser.getId();
             
             Message updated = messageService.markAsRead(id, userId);
             return ResponseEntity.ok(updated);
@@ -88,13 +123,31 @@ public class MessageController {
         }
     }
 
+    @PostMapping("/conversations/{conversationId}/read")
+    public ResponseEntity<?> markConversationAsRead(@PathVariable Long conversationId,
+                                                    @RequestParam(required = false) Long upToMessageId,
+                                                    Authentication authentication) {
+        try {
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+            Long userId = currentUser.getId();
+
+            int updated = messageService.markConversationAsRead(conversationId, userId, upToMessageId);
+            return ResponseEntity.ok(new MarkReadResponse(updated, messageService.getUnreadCount(userId)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ErrorResponse("Forbidden", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse("Error", e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateMessage(@PathVariable Long id,
                                           @RequestBody MessageRequest request,
                                           Authentication authentication) {
         try {
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            com.example.demo.entity.User currentUser = userService.findByUsername(userDetails.getUsername());
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
             Long userId = currentUser.getId();
             String userRole = currentUser.getRole();
             
@@ -112,8 +165,7 @@ public class MessageController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteMessage(@PathVariable Long id, Authentication authentication) {
         try {
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            com.example.demo.entity.User currentUser = userService.findByUsername(userDetails.getUsername());
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
             Long userId = currentUser.getId();
             String userRole = currentUser.getRole();
             
@@ -158,6 +210,48 @@ public class MessageController {
         }
     }
 
+    public static class MarkReadResponse {
+        private int updated;
+        private long unreadCount;
+
+        public MarkReadResponse(int updated, long unreadCount) {
+            this.updated = updated;
+            this.unreadCount = unreadCount;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        public void setUpdated(int updated) {
+            this.updated = updated;
+        }
+
+        public long getUnreadCount() {
+            return unreadCount;
+        }
+
+        public void setUnreadCount(long unreadCount) {
+            this.unreadCount = unreadCount;
+        }
+    }
+
+    public static class UnreadCountResponse {
+        private long unreadCount;
+
+        public UnreadCountResponse(long unreadCount) {
+            this.unreadCount = unreadCount;
+        }
+
+        public long getUnreadCount() {
+            return unreadCount;
+        }
+
+        public void setUnreadCount(long unreadCount) {
+            this.unreadCount = unreadCount;
+        }
+    }
+
     public static class ErrorResponse {
         private String error;
         private String message;
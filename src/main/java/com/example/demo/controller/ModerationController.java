@@ -0,0 +1,64 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.ModerationQueueItem;
+import com.example.demo.dto.SearchPage;
+import com.example.demo.service.ModerationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Очередь модерации для администраторов: объявления с ожидающими жалобами,
+ * упорядоченные по числу жалоб и времени последней.
+ */
+@RestController
+@RequestMapping("/api/admin/moderation")
+public class ModerationController {
+
+    private final ModerationService moderationService;
+
+    public ModerationController(ModerationService moderationService) {
+        this.moderationService = moderationService;
+    }
+
+    @GetMapping("/queue")
+    public ResponseEntity<?> getQueue(@RequestParam(required = false) Integer page,
+                                      @RequestParam(required = false) Integer size) {
+        try {
+            SearchPage<ModerationQueueItem> queue = moderationService.getQueue(page, size);
+            return ResponseEntity.ok(queue);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse("Error", e.getMessage()));
+        }
+    }
+
+    public static class ErrorResponse {
+        private String error;
+        private String message;
+
+        public ErrorResponse(String error, String message) {
+            this.error = error;
+            this.message = message;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
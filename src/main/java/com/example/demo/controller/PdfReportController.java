@@ -0,0 +1,122 @@
+package com.example.demo.controller;
+
+import com.example.demo.pdf.PdfJob;
+import com.example.demo.pdf.PdfJobRejectedException;
+import com.example.demo.pdf.PdfReportService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+
+/**
+ * PDF-отчёты для администраторов. Документ строится в фоне: POST возвращает 202 с задачей
+ * и ссылкой на неё, клиент опрашивает GET /jobs/{id} и после статуса DONE скачивает /jobs/{id}/file.
+ * Повторный запрос того же отчёта, пока он в очереди или в кэше, возвращает существующую задачу.
+ */
+@RestController
+@RequestMapping("/api/admin/pdf")
+public class PdfReportController {
+
+    private final PdfReportService pdfReportService;
+
+    public PdfReportController(PdfReportService pdfReportService) {
+        this.pdfReportService = pdfReportService;
+    }
+
+    @PostMapping("/reports")
+    public ResponseEntity<?> generateReports(@RequestParam(defaultValue = "PENDING") String status) {
+        try {
+            return accepted(pdfReportService.submitReports(status));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorResponse("Error", e.getMessage()));
+        } catch (PdfJobRejectedException e) {
+            return rejected(e);
+        }
+    }
+
+    @PostMapping("/catalogues/{categoryId}")
+    public ResponseEntity<?> generateCatalogue(@PathVariable Long categoryId) {
+        try {
+            return accepted(pdfReportService.submitCatalogue(categoryId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorResponse("Error", e.getMessage()));
+        } catch (PdfJobRejectedException e) {
+            return rejected(e);
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> getJob(@PathVariable String id) {
+        PdfJob job = pdfReportService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse("Error", "PDF job not found: " + id));
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping("/jobs/{id}/file")
+    public ResponseEntity<?> downloadFile(@PathVariable String id) {
+        PdfJob job = pdfReportService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse("Error", "PDF job not found: " + id));
+        }
+        if (job.getStatus() != PdfJob.Status.DONE) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponse("Error", "PDF job " + id + " is " + job.getStatus()));
+        }
+        String filename = job.getType() + "-" + job.getId() + ".pdf";
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .contentLength(job.getSizeBytes())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(new FileSystemResource(job.getFile()));
+    }
+
+    private static ResponseEntity<PdfJob> accepted(PdfJob job) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/admin/pdf/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    private static ResponseEntity<ErrorResponse> rejected(PdfJobRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "5")
+                .body(new ErrorResponse("Service Unavailable", e.getMessage()));
+    }
+
+    public static class ErrorResponse {
+        private String error;
+        private String message;
+
+        public ErrorResponse(String error, String message) {
+            this.error = error;
+            this.message = message;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
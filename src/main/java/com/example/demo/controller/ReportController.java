@@ -1,11 +1,11 @@
 package com.example.demo.controller;
 
 import com.example.demo.entity.Report;
+import com.example.demo.security.AuthenticatedUser;
 import com.example.demo.service.ReportService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -15,12 +15,9 @@ import java.util.List;
 public class ReportController {
 
     private final ReportService reportService;
-    private final com.example.demo.service.UserService userService;
 
-    public ReportController(ReportService reportService,
-                           com.example.demo.service.UserService userService) {
+    public ReportController(ReportService reportService) {
         this.reportService = reportService;
-        this.userService = userService;
     }
 
     @GetMapping
@@ -35,8 +32,8 @@ public class ReportController {
 
     @GetMapping("/user")
     public List<Report> getReportsByUser(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        Long userId = userService.findByUsername(userDetails.getUsername()).getId();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        Long userId = currentUser.getId();
         return reportService.getReportsByUser(userId);
     }
 
@@ -53,8 +50,8 @@ public class ReportController {
     @PostMapping
     public ResponseEntity<?> createReport(@RequestBody ReportRequest request, Authentication authentication) {
         try {
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            Long userId = userService.findByUsername(userDetails.getUsername()).getId();
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+            Long userId = currentUser.getId();
             
             Report report = new Report();
             report.setReason(request.getReason());
@@ -73,13 +70,12 @@ public class ReportController {
     @PutMapping("/{id}/status")
     public ResponseEntity<?> updateReportStatus(@PathVariable Long id, @RequestBody StatusRequest request, Authentication authentication) {
         try {
-            if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails)) {
+            if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser)) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(new ErrorResponse("Error", "User not authenticated"));
             }
 
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            com.example.demo.entity.User currentUser = userService.findByUsername(userDetails.getUsername());
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
 
             if (!"ADMIN".equals(currentUser.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
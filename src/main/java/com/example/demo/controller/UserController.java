@@ -1,10 +1,11 @@
 package com.example.demo.controller;
 
 import com.example.demo.entity.User;
+import com.example.demo.security.AuthenticatedUser;
+import com.example.demo.security.PasswordHashingRejectedException;
 import com.example.demo.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -26,6 +27,10 @@ public class UserController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(org.springframework.http.HttpStatus.BAD_REQUEST)
                     .body(new ErrorResponse("Error", e.getMessage()));
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                    .body(new ErrorResponse("Error", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.status(org.springframework.http.HttpStatus.BAD_REQUEST)
                     .body(new ErrorResponse("Error", e.getMessage()));
@@ -70,11 +75,11 @@ public class UserController {
 
     @GetMapping("/me")
     public User getCurrentUser(Authentication authentication) {
-        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails)) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser)) {
             throw new RuntimeException("User not authenticated");
         }
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        User user = userService.findByUsername(userDetails.getUsername());
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        User user = userService.getUserById(currentUser.getId());
         user.setPassword(null);
         return user;
     }
@@ -82,13 +87,12 @@ public class UserController {
     @PutMapping("/{id}")
     public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody User user, Authentication authentication) {
         try {
-            if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails)) {
+            if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser)) {
                 return ResponseEntity.status(org.springframework.http.HttpStatus.UNAUTHORIZED)
                         .body(new ErrorResponse("Error", "User not authenticated"));
             }
 
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            User currentUser = userService.findByUsername(userDetails.getUsername());
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
 
             if (!currentUser.getRole().equals("ADMIN") && !currentUser.getId().equals(id)) {
                 return ResponseEntity.status(org.springframework.http.HttpStatus.FORBIDDEN)
@@ -101,6 +105,10 @@ public class UserController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(org.springframework.http.HttpStatus.BAD_REQUEST)
                     .body(new ErrorResponse("Error", e.getMessage()));
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                    .body(new ErrorResponse("Error", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.status(org.springframework.http.HttpStatus.BAD_REQUEST)
                     .body(new ErrorResponse("Error", e.getMessage()));
@@ -113,13 +121,12 @@ public class UserController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable Long id, Authentication authentication) {
         try {
-            if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails)) {
+            if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser)) {
                 return ResponseEntity.status(org.springframework.http.HttpStatus.UNAUTHORIZED)
                         .body(new ErrorResponse("Error", "User not authenticated"));
             }
 
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            User currentUser = userService.findByUsername(userDetails.getUsername());
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
 
             if (!currentUser.getRole().equals("ADMIN")) {
                 return ResponseEntity.status(org.springframework.http.HttpStatus.FORBIDDEN)
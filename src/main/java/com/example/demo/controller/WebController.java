@@ -1,7 +1,9 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CategorySummary;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.ListingSummary;
 import com.example.demo.entity.Listing;
-import com.example.demo.entity.Category;
 import com.example.demo.entity.User;
 import com.example.demo.service.ListingService;
 import com.example.demo.service.CategoryService;
@@ -27,19 +29,21 @@ public class WebController {
     private UserService userService;
 
     @GetMapping("/")
-    public String index(Model model) {
-        List<Listing> listings = listingService.getAllActiveListings();
-        List<Category> categories = categoryService.getAllCategories();
-        model.addAttribute("listings", listings);
+    public String index(@RequestParam(required = false) String cursor, Model model) {
+        CursorPage<ListingSummary> page = listingService.getActiveListingsPage(cursor, null);
+        List<CategorySummary> categories = categoryService.getAllCategories();
+        model.addAttribute("listings", page.getItems());
+        model.addAttribute("nextCursor", page.getNextCursor());
         model.addAttribute("categories", categories);
         return "index";
     }
 
     @GetMapping("/listings")
-    public String getAllListings(Model model) {
-        List<Listing> listings = listingService.getAllActiveListings();
-        List<Category> categories = categoryService.getAllCategories();
-        model.addAttribute("listings", listings);
+    public String getAllListings(@RequestParam(required = false) String cursor, Model model) {
+        CursorPage<ListingSummary> page = listingService.getActiveListingsPage(cursor, null);
+        List<CategorySummary> categories = categoryService.getAllCategories();
+        model.addAttribute("listings", page.getItems());
+        model.addAttribute("nextCursor", page.getNextCursor());
         model.addAttribute("categories", categories);
         return "listings";
     }
@@ -53,8 +57,8 @@ public class WebController {
 
     @GetMapping("/listings/category/{categoryId}")
     public String getListingsByCategory(@PathVariable Long categoryId, Model model) {
-        List<Listing> listings = listingService.getListingsByCategory(categoryId);
-        Category category = categoryService.getCategoryById(categoryId);
+        List<ListingSummary> listings = listingService.getListingsByCategory(categoryId);
+        CategorySummary category = categoryService.getCategoryById(categoryId);
         model.addAttribute("listings", listings);
         model.addAttribute("category", category);
         return "listings";
@@ -93,7 +97,7 @@ public class WebController {
 
     @GetMapping("/listings/create")
     public String createListingPage(Model model) {
-        List<Category> categories = categoryService.getAllCategories();
+        List<CategorySummary> categories = categoryService.getAllCategories();
         model.addAttribute("categories", categories);
         return "create-listing";
     }
@@ -101,7 +105,7 @@ public class WebController {
     @GetMapping("/listings/{id}/edit")
     public String editListingPage(@PathVariable Long id, Model model) {
         Listing listing = listingService.getListingById(id);
-        List<Category> categories = categoryService.getAllCategories();
+        List<CategorySummary> categories = categoryService.getAllCategories();
         model.addAttribute("listing", listing);
         model.addAttribute("categories", categories);
         return "edit-listing";
@@ -0,0 +1,29 @@
+package com.example.demo.dto;
+
+/**
+ * Категория для чтения и кэша: неизменяемый снимок вместо JPA-сущности, которую вызывающий
+ * код мог бы изменить или привязать к своей сессии на глазах у остальных потоков.
+ */
+public class CategorySummary {
+    private final Long id;
+    private final String name;
+    private final String description;
+
+    public CategorySummary(Long id, String name, String description) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
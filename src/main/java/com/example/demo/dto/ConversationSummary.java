@@ -0,0 +1,95 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка входящих: переписка по объявлению с одним собеседником и её последнее сообщение.
+ */
+public class ConversationSummary {
+    private Long id;
+    private ListingRef listing;
+    private UserRef counterpart;
+    private Integer unreadCount;
+    private LocalDateTime lastMessageAt;
+    private Long lastMessageId;
+    private String lastMessageText;
+    private Long lastMessageSenderId;
+
+    public ConversationSummary(Long id, Long listingId, String listingTitle,
+                               Long counterpartId, String counterpartUsername,
+                               Integer unreadCount, LocalDateTime lastMessageAt,
+                               Long lastMessageId, String lastMessageText, Long lastMessageSenderId) {
+        this.id = id;
+        this.listing = new ListingRef(listingId, listingTitle);
+        this.counterpart = new UserRef(counterpartId, counterpartUsername);
+        this.unreadCount = unreadCount;
+        this.lastMessageAt = lastMessageAt;
+        this.lastMessageId = lastMessageId;
+        this.lastMessageText = lastMessageText;
+        this.lastMessageSenderId = lastMessageSenderId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ListingRef getListing() {
+        return listing;
+    }
+
+    public void setListing(ListingRef listing) {
+        this.listing = listing;
+    }
+
+    public UserRef getCounterpart() {
+        return counterpart;
+    }
+
+    public void setCounterpart(UserRef counterpart) {
+        this.counterpart = counterpart;
+    }
+
+    public Integer getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(Integer unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    public LocalDateTime getLastMessageAt() {
+        return lastMessageAt;
+    }
+
+    public void setLastMessageAt(LocalDateTime lastMessageAt) {
+        this.lastMessageAt = lastMessageAt;
+    }
+
+    public Long getLastMessageId() {
+        return lastMessageId;
+    }
+
+    public void setLastMessageId(Long lastMessageId) {
+        this.lastMessageId = lastMessageId;
+    }
+
+    public String getLastMessageText() {
+        return lastMessageText;
+    }
+
+    public void setLastMessageText(String lastMessageText) {
+        this.lastMessageText = lastMessageText;
+    }
+
+    public Long getLastMessageSenderId() {
+        return lastMessageSenderId;
+    }
+
+    public void setLastMessageSenderId(Long lastMessageSenderId) {
+        this.lastMessageSenderId = lastMessageSenderId;
+    }
+}
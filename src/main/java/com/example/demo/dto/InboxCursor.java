@@ -0,0 +1,61 @@
+package com.example.demo.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор входящих: раздел (непрочитанные или прочитанные) и позиция
+ * (last_message_at, id) внутри него. Клиент получает его в поле nextCursor и передаёт обратно как есть.
+ */
+public class InboxCursor {
+
+    private static final char SEPARATOR = '|';
+    private static final char UNREAD = 'U';
+    private static final char READ = 'R';
+
+    private final boolean unread;
+    private final LocalDateTime lastMessageAt;
+    private final Long id;
+
+    public InboxCursor(boolean unread, LocalDateTime lastMessageAt, Long id) {
+        this.unread = unread;
+        this.lastMessageAt = lastMessageAt;
+        this.id = id;
+    }
+
+    public boolean isUnread() {
+        return unread;
+    }
+
+    public LocalDateTime getLastMessageAt() {
+        return lastMessageAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = String.valueOf(unread ? UNREAD : READ) + SEPARATOR + lastMessageAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static InboxCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int last = raw.lastIndexOf(SEPARATOR);
+            if (first != 1 || last <= first + 1 || (raw.charAt(0) != UNREAD && raw.charAt(0) != READ)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new InboxCursor(raw.charAt(0) == UNREAD,
+                    LocalDateTime.parse(raw.substring(first + 1, last)),
+                    Long.parseLong(raw.substring(last + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
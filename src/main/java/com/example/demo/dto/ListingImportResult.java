@@ -0,0 +1,178 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Итог массового импорта объявлений. Строки с ошибками проверки пропускаются (rowErrors),
+ * пакет, не сохранившийся целиком, откатывается (chunkErrors); остальные пакеты сохраняются.
+ */
+public class ListingImportResult {
+    private int totalRows;
+    private int imported;
+    private int rejected;
+    private int failed;
+    private String method;
+    private long elapsedMs;
+    private long rowsPerSecond;
+    private List<RowError> rowErrors;
+    private List<ChunkError> chunkErrors;
+
+    public ListingImportResult(int totalRows, int imported, int rejected, int failed, String method,
+                               long elapsedMs, List<RowError> rowErrors, List<ChunkError> chunkErrors) {
+        this.totalRows = totalRows;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.failed = failed;
+        this.method = method;
+        this.elapsedMs = elapsedMs;
+        this.rowsPerSecond = elapsedMs > 0 ? imported * 1000L / elapsedMs : imported;
+        this.rowErrors = rowErrors;
+        this.chunkErrors = chunkErrors;
+    }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(int totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(long rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public List<RowError> getRowErrors() {
+        return rowErrors;
+    }
+
+    public void setRowErrors(List<RowError> rowErrors) {
+        this.rowErrors = rowErrors;
+    }
+
+    public List<ChunkError> getChunkErrors() {
+        return chunkErrors;
+    }
+
+    public void setChunkErrors(List<ChunkError> chunkErrors) {
+        this.chunkErrors = chunkErrors;
+    }
+
+    /** Строка не прошла проверку; index — позиция в исходном массиве. */
+    public static class RowError {
+        private int index;
+        private String message;
+
+        public RowError(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+
+    /** Пакет откатился; fromIndex и toIndex — позиции его первой и последней строки в исходном массиве. */
+    public static class ChunkError {
+        private int chunk;
+        private int fromIndex;
+        private int toIndex;
+        private String message;
+
+        public ChunkError(int chunk, int fromIndex, int toIndex, String message) {
+            this.chunk = chunk;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.message = message;
+        }
+
+        public int getChunk() {
+            return chunk;
+        }
+
+        public void setChunk(int chunk) {
+            this.chunk = chunk;
+        }
+
+        public int getFromIndex() {
+            return fromIndex;
+        }
+
+        public void setFromIndex(int fromIndex) {
+            this.fromIndex = fromIndex;
+        }
+
+        public int getToIndex() {
+            return toIndex;
+        }
+
+        public void setToIndex(int toIndex) {
+            this.toIndex = toIndex;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
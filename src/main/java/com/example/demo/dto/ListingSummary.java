@@ -0,0 +1,106 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Объявление в списках. Заполняется JPQL-выражением конструктора одним запросом
+ * (join по автору и категории), поэтому число запросов не зависит от размера списка.
+ * Структура JSON совпадает с сущностью Listing: вложенные user и category.
+ */
+public class ListingSummary {
+    private Long id;
+    private String title;
+    private String description;
+    private Double price;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Boolean isActive;
+    private UserRef user;
+    private CategoryRef category;
+
+    public ListingSummary(Long id, String title, String description, Double price,
+                          LocalDateTime createdAt, LocalDateTime updatedAt, Boolean isActive,
+                          Long userId, String username, Long categoryId, String categoryName) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.price = price;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.isActive = isActive;
+        this.user = new UserRef(userId, username);
+        this.category = new CategoryRef(categoryId, categoryName);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Boolean getIsActive() {
+        return isActive;
+    }
+
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+
+    public UserRef getUser() {
+        return user;
+    }
+
+    public void setUser(UserRef user) {
+        this.user = user;
+    }
+
+    public CategoryRef getCategory() {
+        return category;
+    }
+
+    public void setCategory(CategoryRef category) {
+        this.category = category;
+    }
+}
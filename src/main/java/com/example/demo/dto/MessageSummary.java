@@ -0,0 +1,86 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сообщение в списках: объявление, отправитель и получатель приходят из одного запроса
+ * с join, без загрузки полных графов сущностей.
+ */
+public class MessageSummary {
+    private Long id;
+    private String text;
+    private LocalDateTime createdAt;
+    private Boolean isRead;
+    private ListingRef listing;
+    private UserRef sender;
+    private UserRef receiver;
+
+    public MessageSummary(Long id, String text, LocalDateTime createdAt, Boolean isRead,
+                          Long listingId, String listingTitle,
+                          Long senderId, String senderUsername,
+                          Long receiverId, String receiverUsername) {
+        this.id = id;
+        this.text = text;
+        this.createdAt = createdAt;
+        this.isRead = isRead;
+        this.listing = new ListingRef(listingId, listingTitle);
+        this.sender = new UserRef(senderId, senderUsername);
+        this.receiver = new UserRef(receiverId, receiverUsername);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Boolean getIsRead() {
+        return isRead;
+    }
+
+    public void setIsRead(Boolean isRead) {
+        this.isRead = isRead;
+    }
+
+    public ListingRef getListing() {
+        return listing;
+    }
+
+    public void setListing(ListingRef listing) {
+        this.listing = listing;
+    }
+
+    public UserRef getSender() {
+        return sender;
+    }
+
+    public void setSender(UserRef sender) {
+        this.sender = sender;
+    }
+
+    public UserRef getReceiver() {
+        return receiver;
+    }
+
+    public void setReceiver(UserRef receiver) {
+        this.receiver = receiver;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Объявление в очереди модерации: число жалоб, ожидающих решения, всего жалоб
+ * и время последней. Заполняется одним запросом по listing_report_stats.
+ */
+public class ModerationQueueItem {
+    private ListingRef listing;
+    private Boolean isActive;
+    private UserRef user;
+    private CategoryRef category;
+    private Long pendingReports;
+    private Long totalReports;
+    private LocalDateTime lastReportedAt;
+    private LocalDateTime autoHiddenAt;
+
+    public ModerationQueueItem(Long listingId, String listingTitle, Boolean isActive,
+                               Long userId, String username, Long categoryId, String categoryName,
+                               Long pendingReports, Long totalReports,
+                               LocalDateTime lastReportedAt, LocalDateTime autoHiddenAt) {
+        this.listing = new ListingRef(listingId, listingTitle);
+        this.isActive = isActive;
+        this.user = new UserRef(userId, username);
+        this.category = new CategoryRef(categoryId, categoryName);
+        this.pendingReports = pendingReports;
+        this.totalReports = totalReports;
+        this.lastReportedAt = lastReportedAt;
+        this.autoHiddenAt = autoHiddenAt;
+    }
+
+    public ListingRef getListing() {
+        return listing;
+    }
+
+    public void setListing(ListingRef listing) {
+        this.listing = listing;
+    }
+
+    public Boolean getIsActive() {
+        return isActive;
+    }
+
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+
+    public UserRef getUser() {
+        return user;
+    }
+
+    public void setUser(UserRef user) {
+        this.user = user;
+    }
+
+    public CategoryRef getCategory() {
+        return category;
+    }
+
+    public void setCategory(CategoryRef category) {
+        this.category = category;
+    }
+
+    public Long getPendingReports() {
+        return pendingReports;
+    }
+
+    public void setPendingReports(Long pendingReports) {
+        this.pendingReports = pendingReports;
+    }
+
+    public Long getTotalReports() {
+        return totalReports;
+    }
+
+    public void setTotalReports(Long totalReports) {
+        this.totalReports = totalReports;
+    }
+
+    public LocalDateTime getLastReportedAt() {
+        return lastReportedAt;
+    }
+
+    public void setLastReportedAt(LocalDateTime lastReportedAt) {
+        this.lastReportedAt = lastReportedAt;
+    }
+
+    public LocalDateTime getAutoHiddenAt() {
+        return autoHiddenAt;
+    }
+
+    public void setAutoHiddenAt(LocalDateTime autoHiddenAt) {
+        this.autoHiddenAt = autoHiddenAt;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Жалоба в списках админки: объявление и автор жалобы приходят из одного запроса с join,
+ * без загрузки графов Listing и User.
+ */
+public class ReportSummary {
+    private Long id;
+    private String reason;
+    private String status;
+    private LocalDateTime createdAt;
+    private ListingRef listing;
+    private CategoryRef category;
+    private UserRef user;
+
+    public ReportSummary(Long id, String reason, String status, LocalDateTime createdAt,
+                         Long listingId, String listingTitle,
+                         Long categoryId, String categoryName,
+                         Long userId, String username) {
+        this.id = id;
+        this.reason = reason;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.listing = new ListingRef(listingId, listingTitle);
+        this.category = new CategoryRef(categoryId, categoryName);
+        this.user = new UserRef(userId, username);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public ListingRef getListing() {
+        return listing;
+    }
+
+    public void setListing(ListingRef listing) {
+        this.listing = listing;
+    }
+
+    public CategoryRef getCategory() {
+        return category;
+    }
+
+    public void setCategory(CategoryRef category) {
+        this.category = category;
+    }
+
+    public UserRef getUser() {
+        return user;
+    }
+
+    public void setUser(UserRef user) {
+        this.user = user;
+    }
+}
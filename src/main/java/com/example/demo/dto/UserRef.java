@@ -0,0 +1,30 @@
+package com.example.demo.dto;
+
+/**
+ * Краткие сведения о пользователе во вложенных объектах ответов (без email и прочих полей).
+ */
+public class UserRef {
+    private Long id;
+    private String username;
+
+    public UserRef(Long id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+}
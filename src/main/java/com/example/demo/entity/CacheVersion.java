@@ -0,0 +1,42 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Версия набора кэшей (региона). Увеличивается при каждом изменении данных региона;
+ * узлы приложения периодически сравнивают её со своей и сбрасывают локальный кэш.
+ */
+@Entity
+@Table(name = "cache_versions")
+public class CacheVersion {
+
+    @Id
+    @Column(length = 50)
+    private String region;
+
+    @Column(nullable = false)
+    private Long version;
+
+    public CacheVersion() {}
+
+    public CacheVersion(String region, Long version) {
+        this.region = region;
+        this.version = version;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
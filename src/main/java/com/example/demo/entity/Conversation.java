@@ -0,0 +1,113 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Переписка пользователя owner с counterpart по объявлению listing — строка входящих.
+ * На каждую пару собеседников хранятся две строки (по одной на каждого), они обновляются
+ * при отправке, прочтении и удалении сообщений, поэтому список входящих не пересчитывается
+ * по таблице messages.
+ */
+@Entity
+@Table(name = "conversations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_conversations_owner_listing_counterpart",
+                columnNames = {"owner_id", "listing_id", "counterpart_id"}),
+        indexes = @Index(name = "idx_conversations_owner_last_message", columnList = "owner_id, last_message_at DESC"))
+public class Conversation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "listing_id", nullable = false)
+    private Listing listing;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "counterpart_id", nullable = false)
+    private User counterpart;
+
+    // Без внешнего ключа: последнее сообщение может быть удалено раньше, чем строка пересчитана
+    @Column(name = "last_message_id", nullable = false)
+    private Long lastMessageId;
+
+    @Column(name = "last_message_at", nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "unread_count", nullable = false)
+    private Integer unreadCount = 0;
+
+    public Conversation() {}
+
+    public Conversation(User owner, Listing listing, User counterpart, Long lastMessageId,
+                        LocalDateTime lastMessageAt, Integer unreadCount) {
+        this.owner = owner;
+        this.listing = listing;
+        this.counterpart = counterpart;
+        this.lastMessageId = lastMessageId;
+        this.lastMessageAt = lastMessageAt;
+        this.unreadCount = unreadCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getOwner() {
+        return owner;
+    }
+
+    public void setOwner(User owner) {
+        this.owner = owner;
+    }
+
+    public Listing getListing() {
+        return listing;
+    }
+
+    public void setListing(Listing listing) {
+        this.listing = listing;
+    }
+
+    public User getCounterpart() {
+        return counterpart;
+    }
+
+    public void setCounterpart(User counterpart) {
+        this.counterpart = counterpart;
+    }
+
+    public Long getLastMessageId() {
+        return lastMessageId;
+    }
+
+    public void setLastMessageId(Long lastMessageId) {
+        this.lastMessageId = lastMessageId;
+    }
+
+    public LocalDateTime getLastMessageAt() {
+        return lastMessageAt;
+    }
+
+    public void setLastMessageAt(LocalDateTime lastMessageAt) {
+        this.lastMessageAt = lastMessageAt;
+    }
+
+    public Integer getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(Integer unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+}
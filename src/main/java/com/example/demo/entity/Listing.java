@@ -7,12 +7,23 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "listings")
+@Table(name = "listings", indexes = {
+    @Index(name = "idx_listings_active_created_id", columnList = "is_active, created_at DESC, id DESC"),
+    // Фильтры страницы админки по категории и автору
+    @Index(name = "idx_listings_category_created_id", columnList = "category_id, created_at DESC, id DESC"),
+    @Index(name = "idx_listings_user_created_id", columnList = "user_id, created_at DESC, id DESC")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Listing {
 
+    /** Размер блока идентификаторов, выделяемого одним обращением к listings_seq (инкремент последовательности). */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Последовательность вместо IDENTITY: Hibernate может группировать INSERT в batch,
+    // а блоки по ID_ALLOCATION_SIZE не требуют обращения к базе на каждую строку
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "listings_seq")
+    @SequenceGenerator(name = "listings_seq", sequenceName = "listings_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, length = 200)
@@ -0,0 +1,82 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Жалобы на объявление в агрегированном виде. Меняется атомарными UPDATE вместе с жалобами,
+ * поэтому очередь модерации читается по индексу (pending_count, last_reported_at),
+ * без GROUP BY по reports; каждое изменение — одна строка и O(log n) в индексе.
+ */
+@Entity
+@Table(name = "listing_report_stats", indexes = {
+    @Index(name = "idx_listing_report_stats_queue", columnList = "pending_count DESC, last_reported_at DESC, listing_id DESC")
+})
+public class ListingReportStats {
+
+    @Id
+    @Column(name = "listing_id")
+    private Long listingId;
+
+    @Column(name = "pending_count", nullable = false)
+    private Long pendingCount;
+
+    @Column(name = "total_count", nullable = false)
+    private Long totalCount;
+
+    @Column(name = "last_reported_at", nullable = false)
+    private LocalDateTime lastReportedAt;
+
+    // Когда объявление скрыто автоматически по порогу жалоб
+    @Column(name = "auto_hidden_at")
+    private LocalDateTime autoHiddenAt;
+
+    public ListingReportStats() {}
+
+    public ListingReportStats(Long listingId, Long pendingCount, Long totalCount, LocalDateTime lastReportedAt) {
+        this.listingId = listingId;
+        this.pendingCount = pendingCount;
+        this.totalCount = totalCount;
+        this.lastReportedAt = lastReportedAt;
+    }
+
+    public Long getListingId() {
+        return listingId;
+    }
+
+    public void setListingId(Long listingId) {
+        this.listingId = listingId;
+    }
+
+    public Long getPendingCount() {
+        return pendingCount;
+    }
+
+    public void setPendingCount(Long pendingCount) {
+        this.pendingCount = pendingCount;
+    }
+
+    public Long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(Long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public LocalDateTime getLastReportedAt() {
+        return lastReportedAt;
+    }
+
+    public void setLastReportedAt(LocalDateTime lastReportedAt) {
+        this.lastReportedAt = lastReportedAt;
+    }
+
+    public LocalDateTime getAutoHiddenAt() {
+        return autoHiddenAt;
+    }
+
+    public void setAutoHiddenAt(LocalDateTime autoHiddenAt) {
+        this.autoHiddenAt = autoHiddenAt;
+    }
+}
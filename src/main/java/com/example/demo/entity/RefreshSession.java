@@ -0,0 +1,112 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Выданный refresh-токен. Ищется по SHA-256 от jti (уникальный индекс), сам токен не хранится.
+ * Все токены, полученные обменом из одного входа, образуют семейство family_id: при повторном
+ * предъявлении уже обменянного токена отзывается всё семейство.
+ */
+@Entity
+@Table(name = "refresh_sessions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_refresh_sessions_token_hash", columnNames = "token_hash"),
+        indexes = {
+                @Index(name = "idx_refresh_sessions_family", columnList = "family_id"),
+                @Index(name = "idx_refresh_sessions_expires_at", columnList = "expires_at")
+        })
+public class RefreshSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    // Без внешнего ключа: сессии удалённого пользователя не обменяются (пользователь не найден)
+    // и удаляются очисткой по сроку действия
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Время обмена или отзыва; null — токен действующий
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+
+    public RefreshSession() {}
+
+    public RefreshSession(String tokenHash, Long userId, String familyId,
+                          LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.userId = userId;
+        this.familyId = familyId;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public void setFamilyId(String familyId) {
+        this.familyId = familyId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+}
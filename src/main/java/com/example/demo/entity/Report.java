@@ -8,6 +8,9 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "reports", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"user_id", "listing_id"})
+}, indexes = {
+    // Очередь жалоб в админке: фильтр по статусу, новые сверху
+    @Index(name = "idx_reports_status_created_id", columnList = "status, created_at DESC, id DESC")
 })
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Report {
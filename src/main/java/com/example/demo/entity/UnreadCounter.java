@@ -0,0 +1,42 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Число непрочитанных входящих сообщений пользователя. Меняется атомарными UPDATE
+ * вместе с сообщениями, чтобы счётчик читался по первичному ключу, без COUNT по messages.
+ */
+@Entity
+@Table(name = "user_unread_counters")
+public class UnreadCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "unread_count", nullable = false)
+    private Long unreadCount;
+
+    public UnreadCounter() {}
+
+    public UnreadCounter(Long userId, Long unreadCount) {
+        this.userId = userId;
+        this.unreadCount = unreadCount;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(Long unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+}
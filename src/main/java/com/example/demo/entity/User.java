@@ -2,6 +2,7 @@ package com.example.demo.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.example.demo.security.AuthenticatedUser;
 import jakarta.persistence.*;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -13,7 +14,7 @@ import java.util.List;
 @Entity
 @Table(name = "users", uniqueConstraints = @UniqueConstraint(columnNames = "username"))
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-public class User implements UserDetails {
+public class User implements UserDetails, AuthenticatedUser {
 
     private static final long serialVersionUID = 1L;
 
@@ -81,6 +82,7 @@ public class User implements UserDetails {
         return enabled;
     }
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -105,6 +107,7 @@ public class User implements UserDetails {
         this.email = email;
     }
 
+    @Override
     public String getRole() {
         return role;
     }
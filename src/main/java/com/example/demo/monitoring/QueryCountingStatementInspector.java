@@ -0,0 +1,55 @@
+package com.example.demo.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Считает SQL-выражения Hibernate, выполненные в текущем потоке между start() и stop().
+ * Подключается через hibernate.session_factory.statement_inspector; запросы JdbcTemplate не учитываются.
+ * Блоки могут быть вложенными (тест вокруг MockMvc-запроса): выражения вложенного блока
+ * после stop() добавляются во внешний.
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    public static QueryStatistics start() {
+        return start(0);
+    }
+
+    /** slowThresholdNanos > 0 — выражения не быстрее порога попадают в QueryStatistics.getSlowStatements(). */
+    public static QueryStatistics start(long slowThresholdNanos) {
+        QueryStatistics statistics = new QueryStatistics(CURRENT.get(), slowThresholdNanos);
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /** Завершает текущий блок и возвращает его статистику (null, если блок не начат). */
+    public static QueryStatistics stop() {
+        QueryStatistics statistics = CURRENT.get();
+        if (statistics == null) {
+            return null;
+        }
+        if (statistics.parent != null) {
+            statistics.parent.merge(statistics);
+            CURRENT.set(statistics.parent);
+        } else {
+            CURRENT.remove();
+        }
+        return statistics;
+    }
+
+    static QueryStatistics current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        QueryStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.recordStatement(sql);
+        }
+        return sql;
+    }
+}
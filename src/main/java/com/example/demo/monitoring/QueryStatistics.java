@@ -0,0 +1,96 @@
+package com.example.demo.monitoring;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL-выражения Hibernate, выполненные в потоке за время одного запроса (или блока в тесте):
+ * число, суммарное время выполнения в JDBC, повторы одного и того же SQL и медленные выражения.
+ * Заполняется QueryCountingStatementInspector и QueryTimingSessionListener.
+ */
+public final class QueryStatistics {
+
+    private static final int MAX_DISTINCT_STATEMENTS = 100;
+    private static final int MAX_SLOW_STATEMENTS = 10;
+
+    final QueryStatistics parent;
+    private final long slowThresholdNanos;
+
+    private int statements;
+    private long executionNanos;
+    private String currentSql;
+    private final Map<String, Integer> statementCounts = new LinkedHashMap<>();
+    private final List<SlowStatement> slowStatements = new ArrayList<>();
+
+    QueryStatistics(QueryStatistics parent, long slowThresholdNanos) {
+        this.parent = parent;
+        this.slowThresholdNanos = slowThresholdNanos;
+    }
+
+    void recordStatement(String sql) {
+        statements++;
+        currentSql = sql;
+        if (statementCounts.size() < MAX_DISTINCT_STATEMENTS || statementCounts.containsKey(sql)) {
+            statementCounts.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    void recordExecution(long nanos) {
+        executionNanos += nanos;
+        if (slowThresholdNanos > 0 && nanos >= slowThresholdNanos && slowStatements.size() < MAX_SLOW_STATEMENTS) {
+            slowStatements.add(new SlowStatement(currentSql, nanos / 1_000_000));
+        }
+    }
+
+    /** Вложенный блок завершён: его выражения учитываются и во внешнем. */
+    void merge(QueryStatistics nested) {
+        statements += nested.statements;
+        executionNanos += nested.executionNanos;
+        nested.statementCounts.forEach((sql, count) -> {
+            if (statementCounts.size() < MAX_DISTINCT_STATEMENTS || statementCounts.containsKey(sql)) {
+                statementCounts.merge(sql, count, Integer::sum);
+            }
+        });
+        for (SlowStatement slow : nested.slowStatements) {
+            if (slowStatements.size() < MAX_SLOW_STATEMENTS) {
+                slowStatements.add(slow);
+            }
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getExecutionNanos() {
+        return executionNanos;
+    }
+
+    public long getExecutionMillis() {
+        return executionNanos / 1_000_000;
+    }
+
+    /** Число выполнений каждого SQL в порядке первого появления (не больше 100 разных выражений). */
+    public Map<String, Integer> getStatementCounts() {
+        return Collections.unmodifiableMap(statementCounts);
+    }
+
+    /** SQL, повторённые чаще всего, — обычно это N+1. */
+    public List<Map.Entry<String, Integer>> mostRepeated(int limit) {
+        return statementCounts.entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public List<SlowStatement> getSlowStatements() {
+        return Collections.unmodifiableList(slowStatements);
+    }
+
+    public record SlowStatement(String sql, long millis) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.demo.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Время выполнения JDBC-выражений сессии Hibernate для текущего блока QueryCountingStatementInspector.
+ * Подключается через hibernate.session.events.auto: Hibernate создаёт экземпляр на каждую сессию,
+ * а сессия используется одним потоком.
+ */
+public class QueryTimingSessionListener implements SessionEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private long executionStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record();
+    }
+
+    private void record() {
+        QueryStatistics statistics = QueryCountingStatementInspector.current();
+        if (statistics != null) {
+            statistics.recordExecution(System.nanoTime() - executionStart);
+        }
+    }
+}
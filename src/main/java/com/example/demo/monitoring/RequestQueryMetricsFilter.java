@@ -0,0 +1,116 @@
+package com.example.demo.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL-выражения Hibernate на HTTP-запрос по маршруту (теги method и uri, как у http.server.requests):
+ * http.server.queries — число, http.server.queries.duration — суммарное время в JDBC.
+ *
+ * Запрос, превысивший бюджет (monitoring.query-budget.*), или выражение медленнее
+ * monitoring.slow-query.threshold-ms пишутся в лог с маршрутом и SQL; для N+1 в лог попадают
+ * самые частые повторы. Счётчики: http.server.queries.budget.exceeded, http.server.queries.slow.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestQueryMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestQueryMetricsFilter.class);
+
+    private static final int MAX_LOGGED_SQL_LENGTH = 300;
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatements;
+    private final long maxExecutionMs;
+    private final long slowQueryNanos;
+
+    public RequestQueryMetricsFilter(MeterRegistry meterRegistry,
+                                     @Value("${monitoring.query-budget.max-statements:20}") int maxStatements,
+                                     @Value("${monitoring.query-budget.max-time-ms:1000}") long maxExecutionMs,
+                                     @Value("${monitoring.slow-query.threshold-ms:500}") long slowQueryMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.maxExecutionMs = maxExecutionMs;
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMs);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCountingStatementInspector.start(slowQueryNanos);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryStatistics statistics = QueryCountingStatementInspector.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            record(request.getMethod(), pattern != null ? pattern.toString() : "UNKNOWN", statistics);
+        }
+    }
+
+    private void record(String method, String uri, QueryStatistics statistics) {
+        DistributionSummary.builder("http.server.queries")
+                .description("Hibernate SQL statements executed per HTTP request")
+                .tags("method", method, "uri", uri)
+                .serviceLevelObjectives(1, 2, 3, 5, 10, 20, 50, 100)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        Timer.builder("http.server.queries.duration")
+                .description("Cumulative JDBC execution time per HTTP request")
+                .tags("method", method, "uri", uri)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry)
+                .record(statistics.getExecutionNanos(), TimeUnit.NANOSECONDS);
+
+        boolean overBudget = (maxStatements > 0 && statistics.getStatements() > maxStatements)
+                || (maxExecutionMs > 0 && statistics.getExecutionMillis() > maxExecutionMs);
+        if (overBudget) {
+            counter("http.server.queries.budget.exceeded", method, uri).increment();
+            StringBuilder message = new StringBuilder();
+            for (Map.Entry<String, Integer> repeated : statistics.mostRepeated(3)) {
+                message.append("\n  ").append(repeated.getValue()).append("x ").append(abbreviate(repeated.getKey()));
+            }
+            logger.warn("{} {} exceeded query budget: {} statements (max {}), {} ms in database (max {} ms){}",
+                    method, uri, statistics.getStatements(), maxStatements,
+                    statistics.getExecutionMillis(), maxExecutionMs, message);
+        }
+        for (QueryStatistics.SlowStatement slow : statistics.getSlowStatements()) {
+            counter("http.server.queries.slow", method, uri).increment();
+            logger.warn("{} {} slow query ({} ms): {}", method, uri, slow.millis(), abbreviate(slow.sql()));
+        }
+    }
+
+    private Counter counter(String name, String method, String uri) {
+        return Counter.builder(name)
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry);
+    }
+
+    private static String abbreviate(String sql) {
+        if (sql == null) {
+            return "?";
+        }
+        return sql.length() <= MAX_LOGGED_SQL_LENGTH ? sql : sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.demo.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Следит за закреплением виртуальных потоков на несущем потоке (блокировка внутри
+ * synchronized или native-вызова) по событию JFR jdk.VirtualThreadPinned.
+ * Длительность пишется в таймер jvm.threads.virtual.pinned с тегом source — библиотекой,
+ * в коде которой поток был закреплён (hikari, hibernate, h2, postgresql, app, other).
+ * Каждое новое место закрепления один раз логируется со стеком.
+ */
+@Component
+@ConditionalOnProperty(name = "threads.virtual.pinning-monitor.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final MeterRegistry meterRegistry;
+    private final long thresholdMs;
+    private final Set<String> reportedLocations = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${threads.virtual.pinning-monitor.threshold-ms:20}") long thresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.thresholdMs = thresholdMs;
+    }
+
+    @PostConstruct
+    void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT)
+                .withThreshold(Duration.ofMillis(thresholdMs))
+                .withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+        logger.info("Virtual thread pinning monitor started (threshold {} ms)", thresholdMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedFrame frame = firstLibraryFrame(event.getStackTrace());
+        String source = classify(frame);
+
+        Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads spent pinned to a carrier thread")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(event.getDuration());
+
+        String location = frame != null
+                ? frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                : "unknown";
+        if (reportedLocations.add(location)) {
+            logger.warn("Virtual thread pinned for {} ms at {} ({}):\n{}",
+                    event.getDuration().toMillis(), location, source, formatStack(event.getStackTrace()));
+        }
+    }
+
+    // Первый кадр вне JDK — место, где код библиотеки или приложения удерживает монитор
+    private static RecordedFrame firstLibraryFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return null;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String className = frame.getMethod().getType().getName();
+            if (!className.startsWith("java.") && !className.startsWith("jdk.") && !className.startsWith("sun.")) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    private static String classify(RecordedFrame frame) {
+        if (frame == null) {
+            return "other";
+        }
+        String className = frame.getMethod().getType().getName();
+        if (className.startsWith("com.zaxxer.hikari.")) {
+            return "hikari";
+        }
+        if (className.startsWith("org.hibernate.")) {
+            return "hibernate";
+        }
+        if (className.startsWith("org.h2.")) {
+            return "h2";
+        }
+        if (className.startsWith("org.postgresql.")) {
+            return "postgresql";
+        }
+        if (className.startsWith("com.example.demo.")) {
+            return "app";
+        }
+        return "other";
+    }
+
+    private static String formatStack(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "    <no stack trace>";
+        }
+        StringBuilder sb = new StringBuilder();
+        stackTrace.getFrames().stream().limit(LOGGED_FRAMES).forEach(frame -> sb.append("    at ")
+                .append(frame.getMethod().getType().getName()).append('.')
+                .append(frame.getMethod().getName()).append(':')
+                .append(frame.getLineNumber()).append('\n'));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.pdf;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Задание на построение PDF. Состояние меняет поток генерации, читают запросы статуса,
+ * поэтому поля volatile.
+ */
+public class PdfJob {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    private final String id;
+    private final String type;
+    private final String key;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long rows;
+    private volatile int pages;
+    private volatile long sizeBytes;
+    private volatile String error;
+    private volatile Path file;
+
+    PdfJob(String id, String type, String key) {
+        this.id = id;
+        this.type = type;
+        this.key = key;
+    }
+
+    void markRunning() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    void markDone(Path file, long rows, int pages, long sizeBytes) {
+        this.file = file;
+        this.rows = rows;
+        this.pages = pages;
+        this.sizeBytes = sizeBytes;
+        finishedAt = LocalDateTime.now();
+        status = Status.DONE;
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    void updateProgress(long rows) {
+        this.rows = rows;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    @JsonIgnore
+    public String getKey() {
+        return key;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public int getPages() {
+        return pages;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @JsonIgnore
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.pdf;
+
+/**
+ * Очередь построения PDF заполнена — задание не принято, клиенту следует повторить позже (503).
+ */
+public class PdfJobRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PdfJobRejectedException(String message) {
+        super(message);
+    }
+}
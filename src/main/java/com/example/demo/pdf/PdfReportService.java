@@ -0,0 +1,380 @@
+package com.example.demo.pdf;
+
+import com.example.demo.dto.CategorySummary;
+import com.example.demo.repository.ListingExportRepository;
+import com.example.demo.repository.ReportExportRepository;
+import com.example.demo.service.CategoryService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.BaseFont;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PDF для администраторов: очередь жалоб с заданным статусом и каталог активных объявлений категории.
+ *
+ * Документ строится на отдельном ограниченном пуле (report.pdf.pool-size, очередь
+ * report.pdf.queue-capacity; при заполненной очереди — PdfJobRejectedException) во временный файл.
+ * Таблица добавляется в документ порциями (PdfPTable с setComplete(false)), поэтому готовые
+ * страницы сразу уходят в файл и в памяти не копится весь документ; строки читаются курсором
+ * (ReportExportRepository, ListingExportRepository) и выводятся по мере чтения.
+ *
+ * Готовый файл хранится report.pdf.cache-ttl-minutes после завершения: повторный запрос того же
+ * отчёта в это время (или пока он ждёт в очереди и строится) возвращает существующее задание.
+ * Шрифт — DejaVu Sans из ресурсов приложения (кириллица), report.pdf.font-path заменяет его своим TTF.
+ */
+@Service
+public class PdfReportService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfReportService.class);
+
+    public static final String TYPE_REPORTS = "reports";
+    public static final String TYPE_CATALOGUE = "catalogue";
+
+    /** Через столько строк завершённая часть таблицы выводится в документ. */
+    private static final int TABLE_FLUSH_ROWS = 200;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
+    private static final String BUNDLED_FONT = "/fonts/DejaVuSans.ttf";
+
+    private final ReportExportRepository reportExportRepository;
+    private final CategoryService categoryService;
+    private final ListingExportRepository listingExportRepository;
+
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, PdfJob> jobsById;
+    private final Cache<String, PdfJob> jobsByKey;
+    private final Path directory;
+    private final BaseFont baseFont;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+    public PdfReportService(ReportExportRepository reportExportRepository,
+                            CategoryService categoryService,
+                            ListingExportRepository listingExportRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${report.pdf.pool-size:2}") int poolSize,
+                            @Value("${report.pdf.queue-capacity:10}") int queueCapacity,
+                            @Value("${report.pdf.cache-ttl-minutes:10}") long cacheTtlMinutes,
+                            @Value("${report.pdf.directory:}") String directory,
+                            @Value("${report.pdf.font-path:}") String fontPath) throws IOException {
+        this.reportExportRepository = reportExportRepository;
+        this.categoryService = categoryService;
+        this.listingExportRepository = listingExportRepository;
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pdf-report-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Expiry<String, PdfJob> expiry = new FinishedJobExpiry(Duration.ofMinutes(cacheTtlMinutes));
+        // Файл удаляется вместе с заданием
+        this.jobsById = Caffeine.newBuilder()
+                .expireAfter(expiry)
+                .<String, PdfJob>removalListener((id, job, cause) -> {
+                    if (job != null && cause != RemovalCause.REPLACED) {
+                        deleteFile(job);
+                    }
+                })
+                .build();
+        this.jobsByKey = Caffeine.newBuilder()
+                .expireAfter(expiry)
+                .build();
+
+        this.directory = directory == null || directory.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "demo-pdf-reports")
+                : Paths.get(directory);
+        Files.createDirectories(this.directory);
+        this.baseFont = loadFont(fontPath);
+
+        this.rejected = Counter.builder("report.pdf.rejected")
+                .description("PDF jobs rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("report.pdf.queue.size", executor, e -> e.getQueue().size())
+                .description("PDF jobs waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    /** Очередь жалоб со статусом status (PENDING, APPROVED, REJECTED). */
+    public PdfJob submitReports(String status) {
+        String normalized = status.toUpperCase(Locale.ROOT);
+        if (!normalized.equals("PENDING") && !normalized.equals("APPROVED") && !normalized.equals("REJECTED")) {
+            throw new IllegalArgumentException("Invalid status. Must be PENDING, APPROVED, or REJECTED");
+        }
+        return submit(TYPE_REPORTS, TYPE_REPORTS + ":" + normalized, (job, document) -> writeReports(job, document, normalized));
+    }
+
+    /** Каталог активных объявлений категории. */
+    public PdfJob submitCatalogue(Long categoryId) {
+        CategorySummary category = categoryService.getCategoryById(categoryId);
+        return submit(TYPE_CATALOGUE, TYPE_CATALOGUE + ":" + categoryId, (job, document) -> writeCatalogue(job, document, category));
+    }
+
+    public PdfJob getJob(String id) {
+        return jobsById.getIfPresent(id);
+    }
+
+    private synchronized PdfJob submit(String type, String key, PdfGenerator generator) {
+        PdfJob existing = jobsByKey.getIfPresent(key);
+        if (existing != null && existing.getStatus() != PdfJob.Status.FAILED && jobsById.getIfPresent(existing.getId()) != null) {
+            return existing;
+        }
+        PdfJob job = new PdfJob(UUID.randomUUID().toString(), type, key);
+        try {
+            executor.execute(() -> run(job, generator));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PdfJobRejectedException("Очередь построения отчётов заполнена, повторите попытку позже");
+        }
+        jobsById.put(job.getId(), job);
+        jobsByKey.put(key, job);
+        return job;
+    }
+
+    private void run(PdfJob job, PdfGenerator generator) {
+        job.markRunning();
+        long started = System.nanoTime();
+        Path file = null;
+        try {
+            file = Files.createTempFile(directory, job.getType() + "-", ".pdf");
+            int pages;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024)) {
+                Document document = new Document(PageSize.A4, 36, 36, 36, 36);
+                PdfWriter writer = PdfWriter.getInstance(document, out);
+                document.open();
+                generator.write(job, document);
+                pages = writer.getPageNumber();
+                document.close();
+            }
+            job.markDone(file, job.getRows(), pages, Files.size(file));
+            finish(job);
+            logger.info("PDF {} built: {} rows, {} pages, {} KB in {} ms", job.getKey(), job.getRows(), pages,
+                    job.getSizeBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("PDF {} failed: {}", job.getKey(), e.getMessage(), e);
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                }
+            }
+            job.markFailed(e.getMessage());
+            finish(job);
+        } finally {
+            Timer.builder("report.pdf.duration")
+                    .description("Time to build a PDF report")
+                    .tag("type", job.getType())
+                    .tag("status", job.getStatus().name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void finish(PdfJob job) {
+        jobsById.put(job.getId(), job);
+        jobsByKey.asMap().replace(job.getKey(), job, job);
+    }
+
+    private void writeReports(PdfJob job, Document document, String status) throws DocumentException {
+        addTitle(document, "Жалобы со статусом " + status);
+        PdfPTable table = newTable(new float[]{1, 2, 4, 2, 6}, "№", "Дата", "Объявление", "Автор", "Причина");
+        long[] rows = new long[1];
+        reportExportRepository.streamReports(status, rs -> {
+            try {
+                addRow(document, table, ++rows[0],
+                        rs.getString("id"),
+                        DATE_FORMAT.format(rs.getTimestamp("created_at").toLocalDateTime()),
+                        rs.getString("listing_title"),
+                        rs.getString("username"),
+                        rs.getString("reason"));
+            } catch (DocumentException e) {
+                throw new IllegalStateException(e);
+            }
+            job.updateProgress(rows[0]);
+        });
+        finishTable(document, table, rows[0]);
+    }
+
+    private void writeCatalogue(PdfJob job, Document document, CategorySummary category) throws DocumentException {
+        addTitle(document, "Каталог объявлений: " + category.getName());
+        PdfPTable table = newTable(new float[]{1, 6, 2, 2, 2}, "№", "Название", "Цена", "Продавец", "Дата");
+        long[] rows = new long[1];
+        listingExportRepository.streamListings(category.getId(), null, true, rs -> {
+            try {
+                addRow(document, table, ++rows[0],
+                        rs.getString("id"),
+                        rs.getString("title"),
+                        String.format(Locale.ROOT, "%.2f", rs.getDouble("price")),
+                        rs.getString("username"),
+                        DATE_FORMAT.format(rs.getTimestamp("created_at").toLocalDateTime()));
+            } catch (DocumentException e) {
+                throw new IllegalStateException(e);
+            }
+            job.updateProgress(rows[0]);
+        });
+        finishTable(document, table, rows[0]);
+    }
+
+    private void addTitle(Document document, String title) throws DocumentException {
+        document.add(new Paragraph(title, new Font(baseFont, 14, Font.BOLD)));
+        Paragraph generated = new Paragraph("Сформирован " + DATE_FORMAT.format(LocalDateTime.now()),
+                new Font(baseFont, 8, Font.NORMAL, BaseColor.GRAY));
+        generated.setSpacingAfter(8);
+        document.add(generated);
+    }
+
+    private PdfPTable newTable(float[] widths, String... headers) {
+        PdfPTable table = new PdfPTable(widths);
+        table.setWidthPercentage(100);
+        table.setHeaderRows(1);
+        // Незавершённая таблица: каждый document.add выводит готовые строки и освобождает их
+        table.setComplete(false);
+        Font headerFont = new Font(baseFont, 9, Font.BOLD);
+        for (String header : headers) {
+            PdfPCell cell = new PdfPCell(new Phrase(header, headerFont));
+            cell.setBackgroundColor(BaseColor.LIGHT_GRAY);
+            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+            table.addCell(cell);
+        }
+        return table;
+    }
+
+    private void addRow(Document document, PdfPTable table, long rowNumber, String... values) throws DocumentException {
+        Font cellFont = new Font(baseFont, 8);
+        for (String value : values) {
+            table.addCell(new Phrase(value != null ? value : "", cellFont));
+        }
+        if (rowNumber % TABLE_FLUSH_ROWS == 0) {
+            document.add(table);
+        }
+    }
+
+    private void finishTable(Document document, PdfPTable table, long rows) throws DocumentException {
+        table.setComplete(true);
+        document.add(table);
+        Paragraph total = new Paragraph("Всего: " + rows, new Font(baseFont, 9, Font.BOLD));
+        total.setSpacingBefore(6);
+        document.add(total);
+    }
+
+    private void deleteFile(PdfJob job) {
+        Path file = job.getFile();
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.debug("Could not delete PDF {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        jobsById.asMap().values().forEach(this::deleteFile);
+    }
+
+    // Без шрифта с кириллицей отчёты были бы нечитаемыми — ошибка при старте, а не пустые ячейки в PDF
+    private static BaseFont loadFont(String fontPath) throws IOException {
+        try {
+            if (fontPath != null && !fontPath.isBlank()) {
+                return BaseFont.createFont(fontPath, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+            }
+            try (InputStream in = PdfReportService.class.getResourceAsStream(BUNDLED_FONT)) {
+                if (in == null) {
+                    throw new IllegalStateException("PDF font resource " + BUNDLED_FONT + " is missing");
+                }
+                return BaseFont.createFont("DejaVuSans.ttf", BaseFont.IDENTITY_H, BaseFont.EMBEDDED,
+                        BaseFont.CACHED, in.readAllBytes(), null);
+            }
+        } catch (DocumentException e) {
+            throw new IllegalStateException("Could not load PDF font " + (fontPath != null && !fontPath.isBlank()
+                    ? fontPath : BUNDLED_FONT), e);
+        }
+    }
+
+    /**
+     * Время жизни задания отсчитывается от завершения: ожидающее в очереди или строящееся задание
+     * не вытесняется, готовое или упавшее хранится ttl с момента put в finish.
+     */
+    private static final class FinishedJobExpiry implements Expiry<String, PdfJob> {
+
+        private final long ttlNanos;
+
+        private FinishedJobExpiry(Duration ttl) {
+            this.ttlNanos = ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, PdfJob job, long currentTime) {
+            return lifetime(job);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, PdfJob job, long currentTime, long currentDuration) {
+            return lifetime(job);
+        }
+
+        @Override
+        public long expireAfterRead(String key, PdfJob job, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private long lifetime(PdfJob job) {
+            return job.getStatus() == PdfJob.Status.DONE || job.getStatus() == PdfJob.Status.FAILED
+                    ? ttlNanos
+                    : Long.MAX_VALUE;
+        }
+    }
+
+    @FunctionalInterface
+    private interface PdfGenerator {
+        void write(PdfJob job, Document document) throws Exception;
+    }
+}
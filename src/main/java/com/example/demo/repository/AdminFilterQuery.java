@@ -0,0 +1,51 @@
+package com.example.demo.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JPQL страницы админки только с заданными фильтрами. Условие вида (:x IS NULL OR col = :x)
+ * в общем плане PostgreSQL (после prepareThreshold выполнений) не использует индекс по col,
+ * поэтому каждое сочетание фильтров получает свой текст запроса и свой план.
+ */
+final class AdminFilterQuery {
+
+    private final StringBuilder where = new StringBuilder();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    /** Добавляет условие с параметром name, если value задан; null — условие не применяется. */
+    AdminFilterQuery and(String condition, String name, Object value) {
+        if (value != null) {
+            where.append(where.isEmpty() ? "WHERE " : "AND ").append(condition).append(' ');
+            parameters.put(name, value);
+        }
+        return this;
+    }
+
+    /**
+     * Страница по select с сортировкой из pageable (свойства сущности с псевдонимом alias);
+     * число строк — отдельным countSelect с тем же условием, только если оно нужно.
+     */
+    <T> Page<T> page(EntityManager entityManager, String select, String countSelect, String alias,
+                     Class<T> type, Pageable pageable) {
+        TypedQuery<T> query = entityManager.createQuery(
+                QueryUtils.applySorting(select + where, pageable.getSort(), alias), type);
+        parameters.forEach(query::setParameter);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> {
+            TypedQuery<Long> count = entityManager.createQuery(countSelect + where, Long.class);
+            parameters.forEach(count::setParameter);
+            return count.getSingleResult();
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.CacheVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CacheVersionRepository extends JpaRepository<CacheVersion, String> {
+
+    @Modifying
+    @Query("UPDATE CacheVersion v SET v.version = v.version + 1 WHERE v.region = :region")
+    int increment(@Param("region") String region);
+
+    // Первая запись региона: строку создаёт одна из параллельных транзакций, остальные её не трогают
+    @Modifying
+    @Query(value = "INSERT INTO cache_versions (region, version) VALUES (:region, 0) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("region") String region);
+}
@@ -0,0 +1,111 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.ConversationSummary;
+import com.example.demo.entity.Conversation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, Long> {
+
+    String INBOX_SELECT = "SELECT new com.example.demo.dto.ConversationSummary(" +
+            "c.id, l.id, l.title, p.id, p.username, c.unreadCount, c.lastMessageAt, m.id, m.text, s.id) " +
+            "FROM Conversation c JOIN c.listing l JOIN c.counterpart p " +
+            "LEFT JOIN Message m ON m.id = c.lastMessageId LEFT JOIN m.sender s ";
+
+    // Входящие читаются двумя разделами — непрочитанные, затем прочитанные, — каждый по индексу
+    // idx_conversations_owner_last_message: сортировка по выражению от unread_count индекс не использует
+    @Query(INBOX_SELECT + "WHERE c.owner.id = :ownerId AND c.unreadCount > 0 " +
+           "ORDER BY c.lastMessageAt DESC, c.id DESC")
+    List<ConversationSummary> findUnreadInboxFirstPage(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    @Query(INBOX_SELECT + "WHERE c.owner.id = :ownerId AND c.unreadCount > 0 " +
+           "AND (c.lastMessageAt < :lastMessageAt OR (c.lastMessageAt = :lastMessageAt AND c.id < :id)) " +
+           "ORDER BY c.lastMessageAt DESC, c.id DESC")
+    List<ConversationSummary> findUnreadInboxPageAfter(@Param("ownerId") Long ownerId,
+                                                       @Param("lastMessageAt") LocalDateTime lastMessageAt,
+                                                       @Param("id") Long id,
+                                                       Pageable pageable);
+
+    @Query(INBOX_SELECT + "WHERE c.owner.id = :ownerId AND c.unreadCount = 0 " +
+           "ORDER BY c.lastMessageAt DESC, c.id DESC")
+    List<ConversationSummary> findReadInboxFirstPage(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    @Query(INBOX_SELECT + "WHERE c.owner.id = :ownerId AND c.unreadCount = 0 " +
+           "AND (c.lastMessageAt < :lastMessageAt OR (c.lastMessageAt = :lastMessageAt AND c.id < :id)) " +
+           "ORDER BY c.lastMessageAt DESC, c.id DESC")
+    List<ConversationSummary> findReadInboxPageAfter(@Param("ownerId") Long ownerId,
+                                                     @Param("lastMessageAt") LocalDateTime lastMessageAt,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
+
+    @Query("SELECT c FROM Conversation c WHERE c.owner.id = :ownerId AND c.listing.id = :listingId " +
+           "AND c.counterpart.id = :counterpartId")
+    Conversation findByParticipants(@Param("ownerId") Long ownerId,
+                                    @Param("listingId") Long listingId,
+                                    @Param("counterpartId") Long counterpartId);
+
+    @Query("SELECT c FROM Conversation c WHERE c.listing.id = :listingId AND c.unreadCount > 0")
+    List<Conversation> findUnreadByListingId(@Param("listingId") Long listingId);
+
+    // Новое сообщение в существующей переписке; 0 — строки ещё нет
+    @Modifying
+    @Query("UPDATE Conversation c SET c.lastMessageId = :messageId, c.lastMessageAt = :messageAt, " +
+           "c.unreadCount = c.unreadCount + :unreadDelta " +
+           "WHERE c.owner.id = :ownerId AND c.listing.id = :listingId AND c.counterpart.id = :counterpartId")
+    int touch(@Param("ownerId") Long ownerId,
+              @Param("listingId") Long listingId,
+              @Param("counterpartId") Long counterpartId,
+              @Param("messageId") Long messageId,
+              @Param("messageAt") LocalDateTime messageAt,
+              @Param("unreadDelta") int unreadDelta);
+
+    // Первое сообщение переписки: строка создаётся без ошибки, даже если параллельная транзакция успела
+    // вставить её раньше (иначе нарушение уникального ключа откатило бы сообщение); данные — следом в touch
+    @Modifying
+    @Query(value = "INSERT INTO conversations (owner_id, listing_id, counterpart_id, last_message_id, last_message_at, " +
+                   "unread_count) VALUES (:ownerId, :listingId, :counterpartId, :messageId, :messageAt, 0) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("ownerId") Long ownerId,
+                       @Param("listingId") Long listingId,
+                       @Param("counterpartId") Long counterpartId,
+                       @Param("messageId") Long messageId,
+                       @Param("messageAt") LocalDateTime messageAt);
+
+    @Modifying
+    @Query("UPDATE Conversation c SET c.unreadCount = " +
+           "CASE WHEN c.unreadCount > :count THEN c.unreadCount - :count ELSE 0 END " +
+           "WHERE c.owner.id = :ownerId AND c.listing.id = :listingId AND c.counterpart.id = :counterpartId")
+    int decrementUnread(@Param("ownerId") Long ownerId,
+                        @Param("listingId") Long listingId,
+                        @Param("counterpartId") Long counterpartId,
+                        @Param("count") int count);
+
+    @Modifying
+    @Query("DELETE FROM Conversation c WHERE c.listing.id = :listingId")
+    int deleteByListingId(@Param("listingId") Long listingId);
+
+    @Modifying
+    @Query("DELETE FROM Conversation c WHERE c.listing.id = :listingId " +
+           "AND ((c.owner.id = :userA AND c.counterpart.id = :userB) " +
+           "OR (c.owner.id = :userB AND c.counterpart.id = :userA))")
+    int deletePair(@Param("listingId") Long listingId, @Param("userA") Long userA, @Param("userB") Long userB);
+
+    @Modifying
+    @Query("UPDATE Conversation c SET c.lastMessageId = :messageId, c.lastMessageAt = :messageAt " +
+           "WHERE c.listing.id = :listingId " +
+           "AND ((c.owner.id = :userA AND c.counterpart.id = :userB) " +
+           "OR (c.owner.id = :userB AND c.counterpart.id = :userA))")
+    int updateLastMessage(@Param("listingId") Long listingId,
+                          @Param("userA") Long userA,
+                          @Param("userB") Long userB,
+                          @Param("messageId") Long messageId,
+                          @Param("messageAt") LocalDateTime messageAt);
+}
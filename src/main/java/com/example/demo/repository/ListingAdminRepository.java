@@ -0,0 +1,14 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.ListingSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+
+/** Страница объявлений для админки: фильтр null не применяется. */
+public interface ListingAdminRepository {
+
+    Page<ListingSummary> findAdminPage(Long categoryId, String username, Boolean active,
+                                       LocalDateTime createdFrom, LocalDateTime createdTo, Pageable pageable);
+}
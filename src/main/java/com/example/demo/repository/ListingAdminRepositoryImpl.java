@@ -0,0 +1,32 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.ListingSummary;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+
+class ListingAdminRepositoryImpl implements ListingAdminRepository {
+
+    private static final String COUNT_SELECT =
+            "SELECT COUNT(l) FROM Listing l JOIN l.user u JOIN l.category c ";
+
+    private final EntityManager entityManager;
+
+    ListingAdminRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<ListingSummary> findAdminPage(Long categoryId, String username, Boolean active,
+                                              LocalDateTime createdFrom, LocalDateTime createdTo, Pageable pageable) {
+        return new AdminFilterQuery()
+                .and("c.id = :categoryId", "categoryId", categoryId)
+                .and("u.username = :username", "username", username)
+                .and("l.isActive = :active", "active", active)
+                .and("l.createdAt >= :createdFrom", "createdFrom", createdFrom)
+                .and("l.createdAt < :createdTo", "createdTo", createdTo)
+                .page(entityManager, ListingRepository.SUMMARY_SELECT, COUNT_SELECT, "l", ListingSummary.class, pageable);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Listing;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Быстрая вставка объявлений через COPY ... FROM STDIN (только PostgreSQL).
+ * Идентификаторы берутся блоками из listings_seq так же, как их выделяет Hibernate
+ * (оптимизатор pooled), поэтому строки из COPY и из JPA не пересекаются.
+ * Методы вызываются внутри транзакции и используют её соединение.
+ */
+@Repository
+public class ListingBulkRepository {
+
+    private static final String COPY_SQL = "COPY listings (id, title, description, price, user_id, category_id, "
+            + "created_at, updated_at, is_active) FROM STDIN WITH (FORMAT csv)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ListingBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Доступен ли COPY: соединение текущей транзакции — драйвер PostgreSQL. */
+    public boolean isCopySupported() {
+        Boolean supported = jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> con.isWrapperFor(PGConnection.class));
+        return Boolean.TRUE.equals(supported);
+    }
+
+    /**
+     * count идентификаторов из listings_seq одним запросом. Значение последовательности h —
+     * верхняя граница блока (h - ID_ALLOCATION_SIZE, h].
+     */
+    public List<Long> allocateIds(int count) {
+        int blocks = (count + Listing.ID_ALLOCATION_SIZE - 1) / Listing.ID_ALLOCATION_SIZE;
+        List<Long> highValues = jdbcTemplate.queryForList(
+                "SELECT nextval('listings_seq') FROM generate_series(1, ?)", Long.class, blocks);
+        List<Long> ids = new ArrayList<>(count);
+        for (Long high : highValues) {
+            for (long id = Math.max(1, high - Listing.ID_ALLOCATION_SIZE + 1); id <= high && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /** Вставляет объявления с уже назначенными id, пользователем и категорией; возвращает число строк. */
+    public long copyInsert(List<Listing> listings) {
+        StringBuilder csv = new StringBuilder(listings.size() * 256);
+        for (Listing listing : listings) {
+            csv.append(listing.getId()).append(',');
+            appendQuoted(csv, listing.getTitle()).append(',');
+            appendQuoted(csv, listing.getDescription()).append(',');
+            csv.append(listing.getPrice()).append(',')
+               .append(listing.getUser().getId()).append(',')
+               .append(listing.getCategory().getId()).append(',')
+               .append(Timestamp.valueOf(listing.getCreatedAt())).append(',')
+               .append(Timestamp.valueOf(listing.getUpdatedAt())).append(',')
+               .append(Boolean.TRUE.equals(listing.getIsActive()) ? "t" : "f").append('\n');
+        }
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try {
+                return con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, new StringReader(csv.toString()));
+            } catch (IOException e) {
+                throw new SQLException("COPY into listings failed", e);
+            }
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder csv, String value) {
+        return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Построчное чтение объявлений для выгрузки: курсор порциями по listing.export.fetch-size
+ * внутри read-only транзакции (PostgreSQL отдаёт строки потоком только в транзакции,
+ * с репликами чтение идёт на реплику). Каждая строка передаётся обработчику сразу после чтения.
+ *
+ * Транзакция и соединение живут не дольше listing.export.timeout-seconds: таймаут транзакции
+ * ограничивает выполнение запроса, а дочитывание курсора (в том числе медленному клиенту)
+ * прерывается проверкой срока на каждой строке.
+ */
+@Repository
+public class ListingExportRepository {
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int timeoutSeconds;
+
+    public ListingExportRepository(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                   @Value("${listing.export.fetch-size:1000}") int fetchSize,
+                                   @Value("${listing.export.timeout-seconds:300}") int timeoutSeconds) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setTimeout(timeoutSeconds);
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * Объявления в порядке id; null в фильтре — без ограничения. Колонки: id, title, description,
+     * price, is_active, created_at, updated_at, category_id, category_name, user_id, username.
+     */
+    public void streamListings(Long categoryId, Long userId, Boolean active, RowCallbackHandler handler) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT l.id, l.title, l.description, l.price, l.is_active, l.created_at, l.updated_at, " +
+                "l.category_id, c.name AS category_name, l.user_id, u.username " +
+                "FROM listings l JOIN categories c ON c.id = l.category_id JOIN users u ON u.id = l.user_id " +
+                "WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (categoryId != null) {
+            sql.append(" AND l.category_id = ?");
+            args.add(categoryId);
+        }
+        if (userId != null) {
+            sql.append(" AND l.user_id = ?");
+            args.add(userId);
+        }
+        if (active != null) {
+            sql.append(" AND l.is_active = ?");
+            args.add(active);
+        }
+        sql.append(" ORDER BY l.id");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        readOnlyTransaction.executeWithoutResult(status ->
+                streamingJdbcTemplate.query(sql.toString(), rs -> {
+                    if (System.nanoTime() - deadline > 0) {
+                        throw new QueryTimeoutException("Listing export exceeded " + timeoutSeconds + " s");
+                    }
+                    handler.processRow(rs);
+                }, args.toArray()));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.ModerationQueueItem;
+import com.example.demo.entity.ListingReportStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ListingReportStatsRepository extends JpaRepository<ListingReportStats, Long> {
+
+    @Modifying
+    @Query("UPDATE ListingReportStats s SET s.pendingCount = s.pendingCount + 1, s.totalCount = s.totalCount + 1, " +
+           "s.lastReportedAt = :reportedAt WHERE s.listingId = :listingId")
+    int addReport(@Param("listingId") Long listingId, @Param("reportedAt") LocalDateTime reportedAt);
+
+    // Первая жалоба на объявление: строка создаётся без ошибки, даже если параллельная транзакция
+    // успела вставить её раньше (иначе нарушение ключа откатило бы и саму жалобу); счётчики — следом в addReport
+    @Modifying
+    @Query(value = "INSERT INTO listing_report_stats (listing_id, pending_count, total_count, last_reported_at) " +
+                   "VALUES (:listingId, 0, 0, :reportedAt) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("listingId") Long listingId, @Param("reportedAt") LocalDateTime reportedAt);
+
+    // Счётчики не уходят ниже нуля, даже если их успели пересчитать
+    @Modifying
+    @Query("UPDATE ListingReportStats s SET " +
+           "s.pendingCount = CASE WHEN s.pendingCount > :pendingDelta THEN s.pendingCount - :pendingDelta ELSE 0 END, " +
+           "s.totalCount = CASE WHEN s.totalCount > 0 THEN s.totalCount - 1 ELSE 0 END " +
+           "WHERE s.listingId = :listingId")
+    int removeReport(@Param("listingId") Long listingId, @Param("pendingDelta") long pendingDelta);
+
+    @Modifying
+    @Query("UPDATE ListingReportStats s SET s.pendingCount = s.pendingCount + 1 WHERE s.listingId = :listingId")
+    int incrementPending(@Param("listingId") Long listingId);
+
+    @Modifying
+    @Query("UPDATE ListingReportStats s SET " +
+           "s.pendingCount = CASE WHEN s.pendingCount > 0 THEN s.pendingCount - 1 ELSE 0 END " +
+           "WHERE s.listingId = :listingId")
+    int decrementPending(@Param("listingId") Long listingId);
+
+    @Modifying
+    @Query("UPDATE ListingReportStats s SET s.autoHiddenAt = :hiddenAt WHERE s.listingId = :listingId")
+    int markAutoHidden(@Param("listingId") Long listingId, @Param("hiddenAt") LocalDateTime hiddenAt);
+
+    // Условный UPDATE: из параллельных решений по жалобам скрытие снимает только одно
+    @Modifying
+    @Query("UPDATE ListingReportStats s SET s.autoHiddenAt = NULL WHERE s.listingId = :listingId AND s.autoHiddenAt IS NOT NULL")
+    int clearAutoHidden(@Param("listingId") Long listingId);
+
+    // Скалярный запрос всегда читает из базы, а не из контекста после UPDATE
+    @Query("SELECT s.pendingCount FROM ListingReportStats s WHERE s.listingId = :listingId")
+    Long findPendingCount(@Param("listingId") Long listingId);
+
+    @Modifying
+    @Query("DELETE FROM ListingReportStats s WHERE s.listingId = :listingId")
+    int deleteByListingId(@Param("listingId") Long listingId);
+
+    // Очередь модерации: чтение по idx_listing_report_stats_queue, объявление и автор — в том же запросе
+    @Query("SELECT new com.example.demo.dto.ModerationQueueItem(" +
+           "l.id, l.title, l.isActive, u.id, u.username, c.id, c.name, " +
+           "s.pendingCount, s.totalCount, s.lastReportedAt, s.autoHiddenAt) " +
+           "FROM ListingReportStats s JOIN Listing l ON l.id = s.listingId JOIN l.user u JOIN l.category c " +
+           "WHERE s.pendingCount > 0 " +
+           "ORDER BY s.pendingCount DESC, s.lastReportedAt DESC, s.listingId DESC")
+    Slice<ModerationQueueItem> findQueue(Pageable pageable);
+}
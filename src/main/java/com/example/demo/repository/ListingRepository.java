@@ -1,20 +1,66 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.ListingSummary;
 import com.example.demo.entity.Listing;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ListingRepository extends JpaRepository<Listing, Long> {
+public interface ListingRepository extends JpaRepository<Listing, Long>, ListingAdminRepository {
+
+    // Проекция для списков: автор и категория в том же запросе, без N+1
+    String SUMMARY_SELECT = "SELECT new com.example.demo.dto.ListingSummary(" +
+            "l.id, l.title, l.description, l.price, l.createdAt, l.updatedAt, l.isActive, " +
+            "u.id, u.username, c.id, c.name) " +
+            "FROM Listing l JOIN l.user u JOIN l.category c ";
+
     List<Listing> findByCategoryId(Long categoryId);
+
+    @Query("SELECT l.id FROM Listing l WHERE l.category.id = :categoryId")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
     List<Listing> findByUserId(Long userId);
     List<Listing> findByIsActiveTrue();
     List<Listing> findByCategoryIdAndIsActiveTrue(Long categoryId);
     
     @Query("SELECT l FROM Listing l WHERE l.isActive = true ORDER BY l.createdAt DESC")
     List<Listing> findAllActiveOrderByCreatedAtDesc();
+
+    // Keyset-пагинация: первая страница ленты
+    @Query(SUMMARY_SELECT + "WHERE l.isActive = true ORDER BY l.createdAt DESC, l.id DESC")
+    List<ListingSummary> findActiveFirstPage(Pageable pageable);
+
+    // Keyset-пагинация: страница после курсора (created_at, id), без OFFSET
+    @Query(SUMMARY_SELECT + "WHERE l.isActive = true " +
+           "AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id < :id)) " +
+           "ORDER BY l.createdAt DESC, l.id DESC")
+    List<ListingSummary> findActivePageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "ORDER BY l.createdAt DESC, l.id DESC")
+    List<ListingSummary> findAllSummaries();
+
+    @Query(SUMMARY_SELECT + "WHERE c.id = :categoryId AND l.isActive = true ORDER BY l.createdAt DESC, l.id DESC")
+    List<ListingSummary> findActiveSummariesByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query(SUMMARY_SELECT + "WHERE u.id = :userId ORDER BY l.createdAt DESC, l.id DESC")
+    List<ListingSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    // Снятие с публикации одним UPDATE: 0, если объявление уже неактивно или удалено
+    @Modifying
+    @Query("UPDATE Listing l SET l.isActive = false, l.updatedAt = :updatedAt WHERE l.id = :id AND l.isActive = true")
+    int deactivateIfActive(@Param("id") Long id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query(SUMMARY_SELECT + "WHERE l.id IN :ids")
+    List<ListingSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
 }
 
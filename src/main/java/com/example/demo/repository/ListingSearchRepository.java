@@ -0,0 +1,102 @@
+package com.example.demo.repository;
+
+import com.example.demo.search.SearchUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Полнотекстовый поиск по заголовку и описанию объявлений.
+ * PostgreSQL: колонка search_vector (tsvector) с GIN-индексом и ранжированием ts_rank_cd.
+ * H2 (dev): встроенный инвертированный индекс org.h2.fulltext.FullText (FT_SEARCH_DATA).
+ * Готовность индекса проверяет SearchIndexInitializer при старте; до этого и при ошибке поиск отключён.
+ */
+@Repository
+public class ListingSearchRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${listing.search.ts-config:russian}")
+    private String tsConfig;
+
+    private volatile Boolean postgres;
+
+    private volatile boolean available;
+
+    public ListingSearchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isPostgres() {
+        if (postgres == null) {
+            String product = jdbcTemplate.getJdbcTemplate().execute(
+                    (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equalsIgnoreCase(product);
+        }
+        return postgres;
+    }
+
+    public String getTsConfig() {
+        return tsConfig;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    /**
+     * Возвращает id активных объявлений, подходящих под запрос, в порядке релевантности.
+     */
+    public List<Long> searchActiveIds(String query, Long categoryId, Double minPrice, Double maxPrice,
+                                      int limit, int offset) {
+        if (!available) {
+            throw new SearchUnavailableException("Full-text search is temporarily unavailable");
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("q", query)
+                .addValue("limit", limit)
+                .addValue("offset", offset);
+
+        StringBuilder sql = new StringBuilder();
+        if (isPostgres()) {
+            params.addValue("cfg", tsConfig);
+            sql.append("SELECT l.id FROM listings l, websearch_to_tsquery(CAST(:cfg AS regconfig), :q) q ")
+               .append("WHERE l.search_vector @@ q AND l.is_active = TRUE ");
+        } else {
+            sql.append("SELECT l.id FROM FT_SEARCH_DATA(:q, 0, 0) ft ")
+               .append("JOIN listings l ON l.id = CAST(ft.KEYS[1] AS BIGINT) ")
+               .append("WHERE ft.\"TABLE\" = 'LISTINGS' AND l.is_active = TRUE ");
+        }
+
+        if (categoryId != null) {
+            sql.append("AND l.category_id = :categoryId ");
+            params.addValue("categoryId", categoryId);
+        }
+        if (minPrice != null) {
+            sql.append("AND l.price >= :minPrice ");
+            params.addValue("minPrice", minPrice);
+        }
+        if (maxPrice != null) {
+            sql.append("AND l.price <= :maxPrice ");
+            params.addValue("maxPrice", maxPrice);
+        }
+
+        if (isPostgres()) {
+            sql.append("ORDER BY ts_rank_cd(l.search_vector, q) DESC, l.created_at DESC, l.id DESC ");
+        } else {
+            // Встроенный индекс H2 не считает релевантность — сортируем по свежести
+            sql.append("ORDER BY l.created_at DESC, l.id DESC ");
+        }
+        sql.append("LIMIT :limit OFFSET :offset");
+
+        return jdbcTemplate.queryForList(sql.toString(), params, Long.class);
+    }
+}
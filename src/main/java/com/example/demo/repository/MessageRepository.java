@@ -1,7 +1,10 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.MessageSummary;
 import com.example.demo.entity.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,5 +22,61 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     
     @Query("SELECT m FROM Message m WHERE (m.sender.id = :userId OR m.receiver.id = :userId) AND m.listing.id = :listingId ORDER BY m.createdAt ASC")
     List<Message> findConversationByListingAndUser(@Param("listingId") Long listingId, @Param("userId") Long userId);
+
+    // Проекция для списков: объявление, отправитель и получатель в том же запросе, без N+1
+    String SUMMARY_SELECT = "SELECT new com.example.demo.dto.MessageSummary(" +
+            "m.id, m.text, m.createdAt, m.isRead, l.id, l.title, s.id, s.username, r.id, r.username) " +
+            "FROM Message m JOIN m.listing l JOIN m.sender s JOIN m.receiver r ";
+
+    @Query(SUMMARY_SELECT + "WHERE l.id = :listingId ORDER BY m.createdAt ASC, m.id ASC")
+    List<MessageSummary> findSummariesByListingId(@Param("listingId") Long listingId);
+
+    @Query(SUMMARY_SELECT + "WHERE l.id = :listingId AND (s.id = :userId OR r.id = :userId) " +
+           "ORDER BY m.createdAt ASC, m.id ASC")
+    List<MessageSummary> findConversationSummaries(@Param("listingId") Long listingId, @Param("userId") Long userId);
+
+    @Query(SUMMARY_SELECT + "WHERE s.id = :senderId ORDER BY m.createdAt DESC, m.id DESC")
+    List<MessageSummary> findSummariesBySenderId(@Param("senderId") Long senderId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE r.id = :receiverId ORDER BY m.createdAt DESC, m.id DESC")
+    List<MessageSummary> findSummariesByReceiverId(@Param("receiverId") Long receiverId, Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Message m SET m.isRead = true WHERE m.id = :id AND m.isRead = false")
+    int markRead(@Param("id") Long id);
+
+    // Все непрочитанные сообщения переписки одним UPDATE; получатель в условии — проверка владельца
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Message m SET m.isRead = true WHERE m.isRead = false " +
+           "AND m.receiver.id = :receiverId AND m.sender.id = :senderId AND m.listing.id = :listingId")
+    int markConversationRead(@Param("receiverId") Long receiverId,
+                             @Param("senderId") Long senderId,
+                             @Param("listingId") Long listingId);
+
+    // То же до сообщения upToId включительно; отдельный запрос, а не (:upToId IS NULL OR ...) — см. AdminFilterQuery
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Message m SET m.isRead = true WHERE m.isRead = false " +
+           "AND m.receiver.id = :receiverId AND m.sender.id = :senderId AND m.listing.id = :listingId " +
+           "AND m.id <= :upToId")
+    int markConversationReadUpTo(@Param("receiverId") Long receiverId,
+                                 @Param("senderId") Long senderId,
+                                 @Param("listingId") Long listingId,
+                                 @Param("upToId") Long upToId);
+
+    // Досылка пропущенного при переподключении потока сообщений
+    @Query(SUMMARY_SELECT + "WHERE r.id = :receiverId AND m.id > :afterId ORDER BY m.id ASC")
+    List<MessageSummary> findSummariesByReceiverIdAfter(@Param("receiverId") Long receiverId,
+                                                        @Param("afterId") Long afterId,
+                                                        Pageable pageable);
+
+    // Последнее сообщение между двумя пользователями по объявлению
+    @Query("SELECT m FROM Message m WHERE m.listing.id = :listingId " +
+           "AND ((m.sender.id = :userA AND m.receiver.id = :userB) " +
+           "OR (m.sender.id = :userB AND m.receiver.id = :userA)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findLatestBetween(@Param("listingId") Long listingId,
+                                    @Param("userA") Long userA,
+                                    @Param("userB") Long userB,
+                                    Pageable pageable);
 }
 
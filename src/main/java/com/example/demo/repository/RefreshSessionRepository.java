@@ -0,0 +1,33 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.RefreshSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshSessionRepository extends JpaRepository<RefreshSession, Long> {
+
+    Optional<RefreshSession> findByTokenHash(String tokenHash);
+
+    // Условный UPDATE: из двух одновременных обменов одного токена успешен только один
+    @Modifying
+    @Query("UPDATE RefreshSession s SET s.revokedAt = :now WHERE s.id = :id AND s.revokedAt IS NULL")
+    int revoke(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshSession s SET s.revokedAt = :now WHERE s.familyId = :familyId AND s.revokedAt IS NULL")
+    int revokeFamily(@Param("familyId") String familyId, @Param("now") LocalDateTime now);
+
+    // Пачка по индексу expires_at; отозванные строки нужны для обнаружения повторов, пока не истекли
+    @Modifying
+    @Query(value = "DELETE FROM refresh_sessions WHERE id IN (" +
+                   "SELECT id FROM refresh_sessions WHERE expires_at < :now LIMIT :limit)",
+           nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
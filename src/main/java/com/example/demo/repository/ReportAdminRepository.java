@@ -0,0 +1,14 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.ReportSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+
+/** Страница жалоб для админки: фильтр null не применяется. */
+public interface ReportAdminRepository {
+
+    Page<ReportSummary> findAdminPage(String status, Long categoryId, String username,
+                                      LocalDateTime createdFrom, LocalDateTime createdTo, Pageable pageable);
+}
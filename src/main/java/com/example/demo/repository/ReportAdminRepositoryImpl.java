@@ -0,0 +1,32 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.ReportSummary;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+
+class ReportAdminRepositoryImpl implements ReportAdminRepository {
+
+    private static final String COUNT_SELECT =
+            "SELECT COUNT(r) FROM Report r JOIN r.listing l JOIN l.category c JOIN r.user u ";
+
+    private final EntityManager entityManager;
+
+    ReportAdminRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<ReportSummary> findAdminPage(String status, Long categoryId, String username,
+                                             LocalDateTime createdFrom, LocalDateTime createdTo, Pageable pageable) {
+        return new AdminFilterQuery()
+                .and("r.status = :status", "status", status)
+                .and("c.id = :categoryId", "categoryId", categoryId)
+                .and("u.username = :username", "username", username)
+                .and("r.createdAt >= :createdFrom", "createdFrom", createdFrom)
+                .and("r.createdAt < :createdTo", "createdTo", createdTo)
+                .page(entityManager, ReportRepository.SUMMARY_SELECT, COUNT_SELECT, "r", ReportSummary.class, pageable);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Построчное чтение жалоб для PDF-отчёта: объявление и автор приходят join'ом в той же строке,
+ * сущности Report не создаются. Курсор порциями по listing.export.fetch-size внутри read-only
+ * транзакции, как в ListingExportRepository.
+ */
+@Repository
+public class ReportExportRepository {
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ReportExportRepository(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                  @Value("${listing.export.fetch-size:1000}") int fetchSize) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Жалобы со статусом status в порядке id. Колонки: id, reason, created_at, listing_id,
+     * listing_title, user_id, username.
+     */
+    public void streamReports(String status, RowCallbackHandler handler) {
+        String sql = "SELECT r.id, r.reason, r.created_at, r.listing_id, l.title AS listing_title, " +
+                "r.user_id, u.username " +
+                "FROM reports r JOIN listings l ON l.id = r.listing_id JOIN users u ON u.id = r.user_id " +
+                "WHERE r.status = ? ORDER BY r.id";
+        readOnlyTransaction.executeWithoutResult(txStatus ->
+                streamingJdbcTemplate.query(sql, handler, status));
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.ReportSummary;
 import com.example.demo.entity.Report;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -10,7 +11,13 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ReportRepository extends JpaRepository<Report, Long> {
+public interface ReportRepository extends JpaRepository<Report, Long>, ReportAdminRepository {
+
+    // Проекция для админки: объявление, категория и автор жалобы в том же запросе, без N+1
+    String SUMMARY_SELECT = "SELECT new com.example.demo.dto.ReportSummary(" +
+            "r.id, r.reason, r.status, r.createdAt, l.id, l.title, c.id, c.name, u.id, u.username) " +
+            "FROM Report r JOIN r.listing l JOIN l.category c JOIN r.user u ";
+
     List<Report> findByListingId(Long listingId);
     List<Report> findByUserId(Long userId);
     List<Report> findByStatus(String status);
@@ -18,4 +25,3 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     @Query("SELECT r FROM Report r WHERE r.user.id = :userId AND r.listing.id = :listingId")
     Optional<Report> findByUserIdAndListingId(@Param("userId") Long userId, @Param("listingId") Long listingId);
 }
-
@@ -0,0 +1,28 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.UnreadCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UnreadCounterRepository extends JpaRepository<UnreadCounter, Long> {
+
+    @Modifying
+    @Query("UPDATE UnreadCounter c SET c.unreadCount = c.unreadCount + :delta WHERE c.userId = :userId")
+    int increment(@Param("userId") Long userId, @Param("delta") long delta);
+
+    // Строка счётчика создаётся без ошибки при гонке первых сообщений пользователю; значение — следом в increment
+    @Modifying
+    @Query(value = "INSERT INTO user_unread_counters (user_id, unread_count) VALUES (:userId, 0) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId);
+
+    // Счётчик не уходит ниже нуля, даже если его успели пересчитать
+    @Modifying
+    @Query("UPDATE UnreadCounter c SET c.unreadCount = " +
+           "CASE WHEN c.unreadCount > :delta THEN c.unreadCount - :delta ELSE 0 END WHERE c.userId = :userId")
+    int decrement(@Param("userId") Long userId, @Param("delta") long delta);
+}
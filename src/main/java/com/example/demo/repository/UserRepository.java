@@ -2,8 +2,20 @@ package com.example.demo.repository;
 
 import com.example.demo.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Собственная readOnly-транзакция: поиск при входе идёт на реплику и отпускает соединение до проверки BCrypt.
+    // Внутри транзакций записи (регистрация, обновление) присоединяется к ним и читает из основной базы
+    @Transactional(readOnly = true)
     Optional<User> findByUsername(String username);
+
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
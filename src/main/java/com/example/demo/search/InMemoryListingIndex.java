@@ -0,0 +1,253 @@
+package com.example.demo.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс активных объявлений в памяти процесса: токен → отсортированный int[] id.
+ * Отдельный список ведётся на каждую категорию, поэтому поиск внутри категории
+ * сводится к пересечению списков и не обращается к БД.
+ *
+ * При старте строится потоковым чтением таблицы listings, дальше обновляется
+ * событиями ListingChangedEvent после коммита транзакций ListingService.
+ */
+@Component
+public class InMemoryListingIndex implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryListingIndex.class);
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+
+    private final Map<String, IntPostingList> tokenPostings = new HashMap<>();
+    private final Map<Integer, IntPostingList> categoryPostings = new HashMap<>();
+    private final Map<Integer, IndexedListing> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final boolean enabled;
+
+    public InMemoryListingIndex(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                @Value("${listing.index.fetch-size:1000}") int fetchSize,
+                                @Value("${listing.index.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void run(String... args) {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Полная перестройка индекса. Строки читаются курсором порциями по fetch-size
+     * (PostgreSQL отдаёт их потоком только внутри транзакции), без загрузки сущностей JPA.
+     */
+    public void rebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            tokenPostings.clear();
+            categoryPostings.clear();
+            documents.clear();
+            readOnlyTransaction.executeWithoutResult(status -> streamingJdbcTemplate.query(
+                    "SELECT id, title, description, price, category_id FROM listings " +
+                    "WHERE is_active = TRUE ORDER BY id",
+                    rs -> {
+                        addDocument(rs.getLong("id"), rs.getString("title"), rs.getString("description"),
+                                rs.getDouble("price"), rs.getLong("category_id"));
+                    }));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        logger.info("Listing index built: {} listings, {} tokens in {} ms, ~{} KB",
+                getDocumentCount(), getTokenCount(), elapsedMs, estimateMemoryBytes() / 1024);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeDocument(toIntId(event.getListingId()));
+            if (!event.isRemoved()) {
+                addDocument(event.getListingId(), event.getTitle(), event.getDescription(),
+                        event.getPrice(), event.getCategoryId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Объявления категории, содержащие все слова запроса, новые (с большим id) первыми.
+     */
+    public List<ListingSearchHit> searchInCategory(Long categoryId, String query, int limit) {
+        String[] tokens = tokenize(query);
+        if (tokens.length == 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            IntPostingList result = categoryPostings.get(toIntId(categoryId));
+            if (result == null) {
+                return Collections.emptyList();
+            }
+            for (String token : tokens) {
+                IntPostingList postings = tokenPostings.get(token);
+                if (postings == null) {
+                    return Collections.emptyList();
+                }
+                result = result.intersect(postings);
+                if (result.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+            List<ListingSearchHit> hits = new ArrayList<>(Math.min(limit, result.size()));
+            for (int i = result.size() - 1; i >= 0 && hits.size() < limit; i--) {
+                IndexedListing doc = documents.get(result.get(i));
+                hits.add(new ListingSearchHit((long) doc.id, doc.title, doc.price, (long) doc.categoryId));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTokenCount() {
+        lock.readLock().lock();
+        try {
+            return tokenPostings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Грубая оценка занимаемой кучи: строки, массивы, записи HashMap. */
+    public long estimateMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Map.Entry<String, IntPostingList> e : tokenPostings.entrySet()) {
+                bytes += 32 + stringBytes(e.getKey()) + e.getValue().estimatedBytes();
+            }
+            for (IntPostingList postings : categoryPostings.values()) {
+                bytes += 48 + postings.estimatedBytes();
+            }
+            for (IndexedListing doc : documents.values()) {
+                bytes += 48 + 40 + stringBytes(doc.title) + 16 + 4L * doc.tokens.length;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Вызывается под write-lock
+    private void addDocument(Long listingId, String title, String description, Double price, Long categoryId) {
+        int id = toIntId(listingId);
+        int category = toIntId(categoryId);
+        String[] tokens = tokenize(title + " " + description);
+        documents.put(id, new IndexedListing(id, category, title, price, tokens));
+        categoryPostings.computeIfAbsent(category, k -> new IntPostingList()).add(id);
+        for (String token : tokens) {
+            tokenPostings.computeIfAbsent(token, k -> new IntPostingList()).add(id);
+        }
+    }
+
+    // Вызывается под write-lock
+    private void removeDocument(int id) {
+        IndexedListing doc = documents.remove(id);
+        if (doc == null) {
+            return;
+        }
+        removeFrom(categoryPostings, doc.categoryId, id);
+        for (String token : doc.tokens) {
+            removeFrom(tokenPostings, token, id);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, IntPostingList> index, K key, int id) {
+        IntPostingList postings = index.get(key);
+        if (postings != null) {
+            postings.remove(id);
+            if (postings.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /** Нижний регистр, ё → е, разбиение по всему, что не буква и не цифра. */
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String part : text.toLowerCase(Locale.ROOT).replace('ё', 'е').split("[^\\p{L}\\p{Nd}]+")) {
+            if (part.length() >= MIN_TOKEN_LENGTH) {
+                tokens.add(part);
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private static int toIntId(Long id) {
+        return Math.toIntExact(id);
+    }
+
+    private static long stringBytes(String s) {
+        return s == null ? 0 : 40 + 2L * s.length();
+    }
+
+    private static final class IndexedListing {
+        final int id;
+        final int categoryId;
+        final String title;
+        final Double price;
+        final String[] tokens;
+
+        IndexedListing(int id, int categoryId, String title, Double price, String[] tokens) {
+            this.id = id;
+            this.categoryId = categoryId;
+            this.title = title;
+            this.price = price;
+            this.tokens = tokens;
+        }
+    }
+}
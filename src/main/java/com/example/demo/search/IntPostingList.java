@@ -0,0 +1,96 @@
+package com.example.demo.search;
+
+import java.util.Arrays;
+
+/**
+ * Отсортированный по возрастанию список id объявлений на примитивном int[].
+ * Не потокобезопасен — доступ синхронизирует InMemoryListingIndex.
+ */
+class IntPostingList {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] ids;
+    private int size;
+
+    IntPostingList() {
+        this.ids = new int[INITIAL_CAPACITY];
+    }
+
+    private IntPostingList(int[] ids, int size) {
+        this.ids = ids;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return ids[index];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void add(int id) {
+        // Новые объявления почти всегда получают максимальный id — быстрый путь append
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size++] = id;
+            return;
+        }
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            return;
+        }
+        int insertAt = -pos - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+
+    void remove(int id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+    }
+
+    /** Пересечение двух отсортированных списков слиянием. */
+    IntPostingList intersect(IntPostingList other) {
+        int[] result = new int[Math.min(size, other.size)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < size && j < other.size) {
+            int a = ids[i];
+            int b = other.ids[j];
+            if (a == b) {
+                result[n++] = a;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return new IntPostingList(result, n);
+    }
+
+    /** Примерный размер в куче: заголовки объектов + массив. */
+    long estimatedBytes() {
+        return 16 + 16 + 4L * ids.length;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+        }
+    }
+}
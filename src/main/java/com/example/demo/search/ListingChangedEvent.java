@@ -0,0 +1,64 @@
+package com.example.demo.search;
+
+import com.example.demo.entity.Listing;
+
+/**
+ * Снимок изменившегося объявления для InMemoryListingIndex.
+ * Публикуется из ListingService и применяется к индексу только после коммита транзакции.
+ */
+public class ListingChangedEvent {
+
+    private final Long listingId;
+    private final boolean removed;
+    private final String title;
+    private final String description;
+    private final Double price;
+    private final Long categoryId;
+
+    private ListingChangedEvent(Long listingId, boolean removed, String title, String description,
+                                Double price, Long categoryId) {
+        this.listingId = listingId;
+        this.removed = removed;
+        this.title = title;
+        this.description = description;
+        this.price = price;
+        this.categoryId = categoryId;
+    }
+
+    /** Объявление создано или изменено; неактивные объявления из индекса убираются. */
+    public static ListingChangedEvent saved(Listing listing) {
+        if (!Boolean.TRUE.equals(listing.getIsActive())) {
+            return removed(listing.getId());
+        }
+        return new ListingChangedEvent(listing.getId(), false, listing.getTitle(), listing.getDescription(),
+                listing.getPrice(), listing.getCategory().getId());
+    }
+
+    public static ListingChangedEvent removed(Long listingId) {
+        return new ListingChangedEvent(listingId, true, null, null, null, null);
+    }
+
+    public Long getListingId() {
+        return listingId;
+    }
+
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+}
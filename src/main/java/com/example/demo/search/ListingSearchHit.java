@@ -0,0 +1,47 @@
+package com.example.demo.search;
+
+public class ListingSearchHit {
+    private Long id;
+    private String title;
+    private Double price;
+    private Long categoryId;
+
+    public ListingSearchHit(Long id, String title, Double price, Long categoryId) {
+        this.id = id;
+        this.title = title;
+        this.price = price;
+        this.categoryId = categoryId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.search;
+
+/**
+ * Полнотекстовый поиск отключён: индекс не создан или не прошёл проверку при старте (503).
+ */
+public class SearchUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SearchUnavailableException(String message) {
+        super(message);
+    }
+}
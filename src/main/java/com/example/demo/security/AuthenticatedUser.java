@@ -0,0 +1,13 @@
+package com.example.demo.security;
+
+/**
+ * То, что контроллерам нужно знать о текущем пользователе.
+ * Реализуется и сущностью User, и JwtUserPrincipal (собранным из claims токена без запроса к БД).
+ */
+public interface AuthenticatedUser {
+    Long getId();
+
+    String getUsername();
+
+    String getRole();
+}
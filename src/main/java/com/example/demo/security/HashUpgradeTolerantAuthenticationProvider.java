@@ -0,0 +1,33 @@
+package com.example.demo.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Вход через форму: пароль уже проверен, а перехеширование старого хеша (encode в
+ * DaoAuthenticationProvider) может получить отказ перегруженного пула BCrypt. Такой отказ
+ * не должен ломать вход с верным паролем — хеш обновится при следующем входе,
+ * как и в UserService.upgradePasswordHash.
+ */
+public class HashUpgradeTolerantAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashUpgradeTolerantAuthenticationProvider.class);
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        try {
+            return super.createSuccessAuthentication(principal, authentication, user);
+        } catch (PasswordHashingRejectedException e) {
+            logger.warn("Password hash upgrade skipped for {}: {}", user.getUsername(), e.getMessage());
+            UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+                    principal, authentication.getCredentials(), user.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.security;
+
+/**
+ * Refresh-токен недействителен, неизвестен, уже обменян или отозван. Отвечаем 401.
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.demo.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,34 +18,58 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String MESSAGE_STREAM_PATH = "/api/messages/stream";
+
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private UserStatusCache userStatusCache;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private Timer validTokenTimer;
+    private Timer invalidTokenTimer;
+
+    /** Время проверки access-токена: jwt.validation с тегом result (valid, invalid). */
+    @PostConstruct
+    public void initMetrics() {
+        if (meterRegistry != null) {
+            validTokenTimer = validationTimer("valid");
+            invalidTokenTimer = validationTimer("invalid");
+        }
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateAccessToken(jwt)) {
-                String username = jwtTokenProvider.getUsernameFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            Claims claims = StringUtils.hasText(jwt) ? parseAccessToken(jwt) : null;
+
+            if (claims != null) {
+                UserDetails userDetails = resolvePrincipal(claims);
+
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(
+                                    userDetails,
+                                    null,
+                                    userDetails.getAuthorities()
+                            );
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
         }
@@ -49,11 +77,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private Claims parseAccessToken(String jwt) {
+        if (validTokenTimer == null) {
+            return jwtTokenProvider.parseAccessToken(jwt);
+        }
+        long start = System.nanoTime();
+        Claims claims = jwtTokenProvider.parseAccessToken(jwt);
+        (claims != null ? validTokenTimer : invalidTokenTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return claims;
+    }
+
+    private Timer validationTimer(String result) {
+        return Timer.builder("jwt.validation")
+                .description("Access token signature and expiry check in JwtAuthenticationFilter")
+                .tag("result", result)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Principal строится из claims токена без обращения к БД; статус пользователя
+     * (существует, не отключён, роль та же, что в токене) берётся из короткоживущего кэша.
+     */
+    private UserDetails resolvePrincipal(Claims claims) {
+        JwtUserPrincipal principal = jwtTokenProvider.getPrincipal(claims);
+        if (principal == null) {
+            // Старый токен без uid/role — загружаем пользователя как раньше
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        return userStatusCache.isActive(principal.getId(), principal.getRole()) ? principal : null;
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
         }
+        // EventSource в браузере не умеет передавать заголовки — для потока сообщений
+        // (и только для него) токен принимается из параметра запроса
+        if (MESSAGE_STREAM_PATH.equals(request.getRequestURI())) {
+            return request.getParameter("access_token");
+        }
         return null;
     }
 }
@@ -1,13 +1,19 @@
 package com.example.demo.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -16,6 +22,9 @@ import java.util.UUID;
 @Component
 public class JwtTokenProvider {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+
     @Value("${jwt.secret:mySecretKeyForJWTSigningThatIsAtLeast32CharactersLong}")
     private String jwtSecret;
 
@@ -25,16 +34,45 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-token-expiration:604800000}") // 7 дней
     private long refreshTokenExpiration;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    @Value("${jwt.verified-cache.ttl-seconds:60}")
+    private long verifiedCacheTtlSeconds;
+
+    // Ключ и парсер неизменяемы и потокобезопасны — создаём один раз
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    // Недавно проверенные токены: повторный запрос с тем же токеном не платит за HMAC и разбор JSON
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        // max-size=0 отключает кэш: каждый токен проверяется заново
+        verifiedTokens = verifiedCacheMaxSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(verifiedCacheMaxSize)
+                        .expireAfterWrite(Duration.ofSeconds(verifiedCacheTtlSeconds))
+                        .build()
+                : null;
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signingKey;
     }
 
     // ===== Генерация токенов =====
 
-    public String generateAccessToken(String username, String email) {
+    public String generateAccessToken(Long userId, String username, String email, String role) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("type", "access");
         claims.put("email", email);
+        // id и роль в токене позволяют не загружать пользователя из БД на каждый запрос
+        claims.put(CLAIM_USER_ID, userId);
+        claims.put(CLAIM_ROLE, role);
 
         Date now = new Date();
         Date expiry = new Date(now.getTime() + accessTokenExpiration);
@@ -49,10 +87,14 @@ public class JwtTokenProvider {
     }
 
     public String generateRefreshToken(String username) {
+        return generateRefreshToken(username, UUID.randomUUID().toString());
+    }
+
+    /** jti делает каждый refresh-токен уникальным; по нему токен находится в refresh_sessions */
+    public String generateRefreshToken(String username, String jti) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("type", "refresh");
-        // делаем каждый refresh-токен уникальным
-        claims.put("jti", UUID.randomUUID().toString());
+        claims.put("jti", jti);
 
         Date now = new Date();
         Date expiry = new Date(now.getTime() + refreshTokenExpiration);
@@ -66,35 +108,67 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    public long getAccessTokenExpiration() {
+        return accessTokenExpiration;
+    }
+
+    public long getRefreshTokenExpiration() {
+        return refreshTokenExpiration;
+    }
+
     // ===== Валидация =====
 
-    /** Базовая проверка подписи и срока жизни */
-    public boolean validateToken(String token) {
+    /**
+     * Проверяет подпись и срок жизни токена и возвращает его claims.
+     * Возвращает null, если токен недействителен.
+     */
+    public Claims parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        Claims cached = verifiedTokens != null ? verifiedTokens.getIfPresent(token) : null;
+        if (cached != null) {
+            // Запись в кэше могла пережить сам токен
+            if (cached.getExpiration() != null && cached.getExpiration().before(new Date())) {
+                verifiedTokens.invalidate(token);
+                return null;
+            }
+            return cached;
+        }
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            if (verifiedTokens != null) {
+                verifiedTokens.put(token, claims);
+            }
+            return claims;
         } catch (JwtException | IllegalArgumentException ex) {
-            return false;
+            return null;
         }
     }
 
+    /** Claims действительного access-токена или null. */
+    public Claims parseAccessToken(String token) {
+        Claims claims = parseToken(token);
+        return claims != null && "access".equals(claims.get("type")) ? claims : null;
+    }
+
+    /** Claims действительного refresh-токена или null. */
+    public Claims parseRefreshToken(String token) {
+        Claims claims = parseToken(token);
+        return claims != null && "refresh".equals(claims.get("type")) ? claims : null;
+    }
+
+    /** Базовая проверка подписи и срока жизни */
+    public boolean validateToken(String token) {
+        return parseToken(token) != null;
+    }
+
     public boolean validateAccessToken(String token) {
-        if (validateToken(token)) {
-            Claims claims = getAllClaimsFromToken(token);
-            return "access".equals(claims.get("type"));
-        }
-        return false;
+        return parseAccessToken(token) != null;
     }
 
     public boolean validateRefreshToken(String token) {
-        if (validateToken(token)) {
-            Claims claims = getAllClaimsFromToken(token);
-            return "refresh".equals(claims.get("type"));
-        }
-        return false;
+        return parseRefreshToken(token) != null;
     }
 
     // ===== Извлечение данных =====
@@ -103,11 +177,24 @@ public class JwtTokenProvider {
         return getAllClaimsFromToken(token).getSubject();
     }
 
+    /**
+     * Principal из claims access-токена. Возвращает null для токенов,
+     * выпущенных до появления claims uid/role.
+     */
+    public JwtUserPrincipal getPrincipal(Claims claims) {
+        Object userId = claims.get(CLAIM_USER_ID);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (!(userId instanceof Number) || role == null) {
+            return null;
+        }
+        return new JwtUserPrincipal(((Number) userId).longValue(), claims.getSubject(), role);
+    }
+
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        Claims claims = parseToken(token);
+        if (claims == null) {
+            throw new JwtException("Invalid JWT token");
+        }
+        return claims;
     }
 }
@@ -0,0 +1,53 @@
+package com.example.demo.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Лёгкий principal, собранный из claims access-токена (uid, sub, role).
+ */
+public class JwtUserPrincipal implements UserDetails, AuthenticatedUser {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String username;
+    private final String role;
+    private final SimpleGrantedAuthority authority;
+
+    public JwtUserPrincipal(Long id, String username, String role) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.authority = new SimpleGrantedAuthority("ROLE_" + role);
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getRole() {
+        return role;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(authority);
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение частоты входа и обновления токенов: отдельные корзины на IP клиента
+ * и на имя пользователя. Перебор паролей с одного адреса и подбор пароля к одному
+ * аккаунту с многих адресов отсекаются до проверки BCrypt.
+ *
+ * Корзина имени расходуется только неудачными попытками: checkLogin забирает токен заранее,
+ * а refundLogin возвращает его, если пароль оказался верным или не проверялся. Так параллельные
+ * попытки не проходят все разом мимо ещё не списанной корзины, а заблокировать чужой аккаунт
+ * можно лишь неверными паролями, не любыми запросами.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final boolean enabled;
+    private final TokenBucketLimiter ipLimiter;
+    private final TokenBucketLimiter usernameLimiter;
+
+    public LoginRateLimiter(@Value("${security.login-rate-limit.enabled:true}") boolean enabled,
+                            @Value("${security.login-rate-limit.ip.capacity:20}") int ipCapacity,
+                            @Value("${security.login-rate-limit.ip.refill-per-minute:20}") int ipRefillPerMinute,
+                            @Value("${security.login-rate-limit.username.capacity:5}") int usernameCapacity,
+                            @Value("${security.login-rate-limit.username.refill-per-minute:5}") int usernameRefillPerMinute,
+                            @Value("${security.login-rate-limit.max-keys:100000}") long maxKeys,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.ipLimiter = new TokenBucketLimiter("ip", ipCapacity, ipRefillPerMinute, maxKeys, meterRegistry);
+        this.usernameLimiter = new TokenBucketLimiter("username", usernameCapacity, usernameRefillPerMinute,
+                maxKeys, meterRegistry);
+    }
+
+    /**
+     * Забирает токены из корзин IP и имени пользователя. Если попытка не окажется неудачной,
+     * токен имени нужно вернуть через refundLogin.
+     * @return 0, если попытку входа можно выполнять, иначе через сколько секунд повторить
+     */
+    public long checkLogin(String clientIp, String username) {
+        if (!enabled) {
+            return 0;
+        }
+        long wait = ipLimiter.tryAcquire(clientIp);
+        if (wait == 0 && username != null) {
+            wait = usernameLimiter.tryAcquire(usernameKey(username));
+        }
+        return toRetryAfterSeconds(wait);
+    }
+
+    /** Вход успешен или пароль не проверялся: возвращаем токен имени, забранный checkLogin. */
+    public void refundLogin(String username) {
+        if (enabled && username != null) {
+            usernameLimiter.refund(usernameKey(username));
+        }
+    }
+
+    /** @return 0, если обновление токенов можно выполнять, иначе через сколько секунд повторить */
+    public long checkRefresh(String clientIp) {
+        if (!enabled) {
+            return 0;
+        }
+        return toRetryAfterSeconds(ipLimiter.tryAcquire(clientIp));
+    }
+
+    private static String usernameKey(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        if (waitNanos == 0) {
+            return 0;
+        }
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.security;
+
+/**
+ * Пул хеширования паролей перегружен: очередь заполнена или задача не дождалась
+ * исполнения за отведённое время. Отвечаем 503, клиент может повторить позже —
+ * через retryAfterSeconds, оценку времени разбора очереди на момент отказа.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(String message) {
+        this(message, 1);
+    }
+
+    public PasswordHashingRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket на ключ (IP, имя пользователя) без блокировок: состояние корзины — одно число,
+ * «теоретическое время прибытия» следующего запроса (GCRA), и меняется через CAS.
+ * Корзины хранятся в Caffeine с ограничением по числу ключей; корзина, к которой не обращались
+ * дольше времени полного пополнения, удаляется — она ничем не отличается от новой.
+ *
+ * Метрики с тегом limiter: auth.rate_limit.rejected, auth.rate_limit.buckets, auth.rate_limit.evictions.
+ */
+public class TokenBucketLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final long origin = System.nanoTime();
+    private final Cache<String, AtomicLong> buckets;
+    private final Counter rejected;
+
+    public TokenBucketLimiter(String name, int capacity, int refillPerMinute, long maxKeys,
+                              MeterRegistry meterRegistry) {
+        this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / refillPerMinute;
+        this.burstNanos = emissionIntervalNanos * capacity;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .recordStats()
+                .build();
+
+        this.rejected = Counter.builder("auth.rate_limit.rejected")
+                .description("Requests rejected by the rate limiter")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("auth.rate_limit.buckets", buckets, Cache::estimatedSize)
+                .description("Keys currently tracked by the rate limiter")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.rate_limit.evictions", buckets, c -> c.stats().evictionCount())
+                .description("Rate limiter buckets evicted by size or idle time")
+                .tag("limiter", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Забрать один токен из корзины ключа.
+     * @return 0, если запрос разрешён, иначе сколько наносекунд ждать до следующего токена
+     */
+    public long tryAcquire(String key) {
+        AtomicLong state = buckets.get(key, k -> new AtomicLong());
+        while (true) {
+            long now = System.nanoTime() - origin;
+            long current = state.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long overflow = next - now - burstNanos;
+            if (overflow > 0) {
+                rejected.increment();
+                return overflow;
+            }
+            if (state.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Вернуть в корзину ключа токен, взятый tryAcquire, — запрос оказался не тем, что ограничивается.
+     * Переполнить корзину возврат не может: время в прошлом tryAcquire заменяет текущим.
+     */
+    public void refund(String key) {
+        AtomicLong state = buckets.getIfPresent(key);
+        if (state == null) {
+            return;
+        }
+        state.addAndGet(-emissionIntervalNanos);
+    }
+}
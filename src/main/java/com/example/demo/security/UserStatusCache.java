@@ -0,0 +1,57 @@
+package com.example.demo.security;
+
+import com.example.demo.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Проверка, что владелец токена всё ещё существует, не отключён и не сменил роль.
+ * Статус и роль кэшируются на короткое время, поэтому к БД уходит не больше
+ * одного запроса на пользователя за TTL, а не на каждый HTTP-запрос.
+ */
+@Component
+public class UserStatusCache {
+
+    private final LoadingCache<Long, UserStatus> users;
+    private final boolean enabled;
+
+    public UserStatusCache(UserRepository userRepository,
+                           @Value("${jwt.user-status-check.enabled:true}") boolean enabled,
+                           @Value("${jwt.user-status-check.ttl-seconds:30}") long ttlSeconds,
+                           @Value("${jwt.user-status-check.max-size:100000}") long maxSize) {
+        this.enabled = enabled;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build(id -> userRepository.findById(id)
+                        .map(user -> new UserStatus(user.isEnabled(), user.getRole()))
+                        .orElse(UserStatus.MISSING));
+    }
+
+    /**
+     * Пользователь активен и его текущая роль совпадает с ролью из токена: после понижения
+     * прав старый токен перестаёт приниматься, не дожидаясь истечения срока.
+     */
+    public boolean isActive(Long userId, String role) {
+        if (!enabled) {
+            return true;
+        }
+        UserStatus status = users.get(userId);
+        return status.enabled() && Objects.equals(status.role(), role);
+    }
+
+    /** Сбросить закэшированный статус, например после удаления пользователя или смены роли. */
+    public void evict(Long userId) {
+        users.invalidate(userId);
+    }
+
+    private record UserStatus(boolean enabled, String role) {
+        static final UserStatus MISSING = new UserStatus(false, null);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.CacheVersion;
+import com.example.demo.repository.CacheVersionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Согласованность локальных кэшей между несколькими узлами приложения.
+ * Запись в регион увеличивает его версию в таблице cache_versions (в той же транзакции)
+ * и после коммита сбрасывает кэши этого узла; остальные узлы замечают новую версию
+ * при очередном опросе и сбрасывают свои.
+ * <p>
+ * Значения кладутся в кэш через {@link #getOrLoad}: загрузка, которую обогнал сброс региона,
+ * могла прочитать данные до коммита записи (или с отстающей реплики) и в кэш не попадает.
+ */
+@Service
+public class CacheVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheVersionService.class);
+
+    private final CacheVersionRepository cacheVersionRepository;
+    private final CacheManager cacheManager;
+
+    private final Map<String, String[]> regions = new ConcurrentHashMap<>();
+    private final Map<String, Long> knownVersions = new ConcurrentHashMap<>();
+    private final Map<String, Eviction> evictions = new ConcurrentHashMap<>();
+    private final long staleReadWindowNanos;
+
+    public CacheVersionService(CacheVersionRepository cacheVersionRepository, CacheManager cacheManager,
+                               @Value("${cache.version.stale-read-window-ms:15000}") long staleReadWindowMs) {
+        this.cacheVersionRepository = cacheVersionRepository;
+        this.cacheManager = cacheManager;
+        this.staleReadWindowNanos = TimeUnit.MILLISECONDS.toNanos(staleReadWindowMs);
+    }
+
+    public void registerRegion(String region, String... cacheNames) {
+        regions.put(region, cacheNames);
+    }
+
+    /**
+     * Значение из кэша cacheName региона region или результат loader. Загруженное кладётся в кэш,
+     * только если за время загрузки регион не сбрасывался и с последнего сброса прошло больше
+     * cache.version.stale-read-window-ms: иначе loader мог читать снимок до коммита записи или реплику,
+     * ещё не догнавшую её, и устаревшее значение жило бы в кэше до истечения TTL.
+     * Вызывать вне транзакции, чтобы снимок данных брался уже после проверки версии.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(String region, String cacheName, Object key, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return loader.get();
+        }
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        Eviction before = evictions.get(region);
+        T value = loader.get();
+        Eviction after = evictions.get(region);
+        if (Objects.equals(before, after)
+                && (after == null || System.nanoTime() - after.atNanos() >= staleReadWindowNanos)) {
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    @Transactional
+    public void invalidate(String region) {
+        if (cacheVersionRepository.increment(region) == 0) {
+            cacheVersionRepository.insertIfAbsent(region);
+            cacheVersionRepository.increment(region);
+        }
+
+        // Сбрасываем только после коммита, иначе параллельный запрос успеет
+        // положить в кэш ещё не изменённые данные
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictLocal(region);
+                }
+            });
+        } else {
+            evictLocal(region);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.version.poll-interval-ms:5000}")
+    public void pollVersions() {
+        try {
+            for (CacheVersion version : cacheVersionRepository.findAll()) {
+                if (!regions.containsKey(version.getRegion())) {
+                    continue;
+                }
+                Long known = knownVersions.put(version.getRegion(), version.getVersion());
+                if (known == null || !known.equals(version.getVersion())) {
+                    evictLocal(version.getRegion());
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Cache version poll failed: {}", e.getMessage());
+        }
+    }
+
+    private void evictLocal(String region) {
+        String[] cacheNames = regions.get(region);
+        if (cacheNames == null) {
+            return;
+        }
+        // Отмечаем сброс до очистки: загрузка, начавшаяся раньше, уже не положит своё значение
+        long now = System.nanoTime();
+        evictions.merge(region, new Eviction(1, now), (previous, ignored) -> new Eviction(previous.count() + 1, now));
+        for (String name : cacheNames) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        logger.debug("Local caches cleared for region {}", region);
+    }
+
+    /** Сколько раз регион сбрасывался на этом узле и когда последний раз (System.nanoTime). */
+    private record Eviction(long count, long atNanos) {
+    }
+}
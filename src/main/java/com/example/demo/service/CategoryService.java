@@ -1,33 +1,79 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CategorySummary;
 import com.example.demo.entity.Category;
 import com.example.demo.repository.CategoryRepository;
+import com.example.demo.repository.ListingRepository;
+import com.example.demo.search.ListingChangedEvent;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Service
+@Timed("app.service")
 public class CategoryService {
 
+    public static final String CACHE_REGION = "categories";
+    public static final String CACHE_ALL = "categories";
+    public static final String CACHE_BY_ID = "categoryById";
+    public static final String CACHE_BY_NAME = "categoryByName";
+
     private final CategoryRepository categoryRepository;
+    private final CacheVersionService cacheVersionService;
+    private final ListingRepository listingRepository;
+    private final InboxService inboxService;
+    private final ModerationService moderationService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, CacheVersionService cacheVersionService,
+                           ListingRepository listingRepository, InboxService inboxService,
+                           ModerationService moderationService, ApplicationEventPublisher eventPublisher) {
         this.categoryRepository = categoryRepository;
+        this.cacheVersionService = cacheVersionService;
+        this.listingRepository = listingRepository;
+        this.inboxService = inboxService;
+        this.moderationService = moderationService;
+        this.eventPublisher = eventPublisher;
+        cacheVersionService.registerRegion(CACHE_REGION, CACHE_ALL, CACHE_BY_ID, CACHE_BY_NAME);
     }
 
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+    // Кэшируемые чтения идут без транзакции сервиса: версию региона CacheVersionService проверяет
+    // до того, как запрос репозитория возьмёт снимок данных
+    public List<CategorySummary> getAllCategories() {
+        return cacheVersionService.getOrLoad(CACHE_REGION, CACHE_ALL, "all",
+                () -> categoryRepository.findAll().stream().map(CategoryService::toSummary).toList());
     }
 
-    public Category getCategoryById(Long id) {
-        return categoryRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Category not found with id: " + id));
+    /** Страница категорий для админки, name — подстрока без учёта регистра (null — все). */
+    @Transactional(readOnly = true)
+    public Page<Category> getCategoriesPage(String name, Pageable pageable) {
+        if (name == null) {
+            return categoryRepository.findAll(pageable);
+        }
+        return categoryRepository.findByNameContainingIgnoreCase(name, pageable);
+    }
+
+    public CategorySummary getCategoryById(Long id) {
+        return cacheVersionService.getOrLoad(CACHE_REGION, CACHE_BY_ID, id,
+                () -> toSummary(getCategoryEntity(id)));
+    }
+
+    public CategorySummary getCategoryByName(String name) {
+        return cacheVersionService.getOrLoad(CACHE_REGION, CACHE_BY_NAME, name,
+                () -> toSummary(categoryRepository.findByName(name)
+                        .orElseThrow(() -> new IllegalArgumentException("Category not found with name: " + name))));
     }
 
-    public Category getCategoryByName(String name) {
-        return categoryRepository.findByName(name)
-                .orElseThrow(() -> new IllegalArgumentException("Category not found with name: " + name));
+    /** Сущность категории в обход кэша — для привязки к объявлению или изменения в текущей транзакции. */
+    @Transactional(readOnly = true)
+    public Category getCategoryEntity(Long id) {
+        return categoryRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Category not found with id: " + id));
     }
 
     @Transactional
@@ -35,15 +81,19 @@ public class CategoryService {
         if (categoryRepository.findByName(category.getName()).isPresent()) {
             throw new IllegalArgumentException("Category with name '" + category.getName() + "' already exists");
         }
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        cacheVersionService.invalidate(CACHE_REGION);
+        return saved;
     }
 
     @Transactional
     public Category updateCategory(Long id, Category updatedCategory) {
-        Category existing = getCategoryById(id);
+        Category existing = getCategoryEntity(id);
         existing.setName(updatedCategory.getName());
         existing.setDescription(updatedCategory.getDescription());
-        return categoryRepository.save(existing);
+        Category saved = categoryRepository.save(existing);
+        cacheVersionService.invalidate(CACHE_REGION);
+        return saved;
     }
 
     @Transactional
@@ -51,7 +101,18 @@ public class CategoryService {
         if (!categoryRepository.existsById(id)) {
             throw new IllegalArgumentException("Category not found with id: " + id);
         }
+        // Объявления удаляются каскадом вместе с категорией: та же очистка, что в ListingService.deleteListing,
+        // иначе диалоги держат внешний ключ, а счётчики жалоб и индекс поиска остаются от удалённых объявлений
+        for (Long listingId : listingRepository.findIdsByCategoryId(id)) {
+            inboxService.onListingDeleted(listingId);
+            moderationService.onListingDeleted(listingId);
+            eventPublisher.publishEvent(ListingChangedEvent.removed(listingId));
+        }
         categoryRepository.deleteById(id);
+        cacheVersionService.invalidate(CACHE_REGION);
     }
-}
 
+    private static CategorySummary toSummary(Category category) {
+        return new CategorySummary(category.getId(), category.getName(), category.getDescription());
+    }
+}
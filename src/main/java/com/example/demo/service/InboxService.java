@@ -0,0 +1,200 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ConversationSummary;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.InboxCursor;
+import com.example.demo.entity.Conversation;
+import com.example.demo.entity.Message;
+import com.example.demo.entity.UnreadCounter;
+import com.example.demo.entity.User;
+import com.example.demo.repository.ConversationRepository;
+import com.example.demo.repository.MessageRepository;
+import com.example.demo.repository.UnreadCounterRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Входящие пользователя: переписки (объявление × собеседник) и счётчики непрочитанных.
+ * Обе структуры обновляются вместе с сообщениями в той же транзакции,
+ * поэтому чтение входящих и счётчика не сканирует таблицу messages.
+ */
+@Service
+public class InboxService {
+
+    private final ConversationRepository conversationRepository;
+    private final UnreadCounterRepository unreadCounterRepository;
+    private final MessageRepository messageRepository;
+
+    @Value("${message.inbox.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${message.inbox.max-size:100}")
+    private int maxPageSize;
+
+    public InboxService(ConversationRepository conversationRepository,
+                        UnreadCounterRepository unreadCounterRepository,
+                        MessageRepository messageRepository) {
+        this.conversationRepository = conversationRepository;
+        this.unreadCounterRepository = unreadCounterRepository;
+        this.messageRepository = messageRepository;
+    }
+
+    /**
+     * Страница входящих по курсору: сначала переписки с непрочитанными, затем остальные,
+     * внутри раздела — по последней активности. Каждый раздел читается своим keyset-запросом,
+     * когда непрочитанные кончаются, страница добирается из прочитанных.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ConversationSummary> getInbox(Long userId, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        InboxCursor after = cursor == null || cursor.isBlank() ? null : InboxCursor.decode(cursor);
+        // Берём на одну запись больше, чтобы понять, есть ли следующая страница
+        List<ConversationSummary> rows = new ArrayList<>();
+        if (after == null) {
+            rows.addAll(conversationRepository.findUnreadInboxFirstPage(userId, PageRequest.of(0, pageSize + 1)));
+        } else if (after.isUnread()) {
+            rows.addAll(conversationRepository.findUnreadInboxPageAfter(userId, after.getLastMessageAt(),
+                    after.getId(), PageRequest.of(0, pageSize + 1)));
+        }
+        if (rows.size() <= pageSize) {
+            PageRequest rest = PageRequest.of(0, pageSize + 1 - rows.size());
+            if (after == null || after.isUnread()) {
+                rows.addAll(conversationRepository.findReadInboxFirstPage(userId, rest));
+            } else {
+                rows.addAll(conversationRepository.findReadInboxPageAfter(userId, after.getLastMessageAt(),
+                        after.getId(), rest));
+            }
+        }
+
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<ConversationSummary> items = rows.subList(0, pageSize);
+        ConversationSummary last = items.get(pageSize - 1);
+        return new CursorPage<>(items,
+                new InboxCursor(last.getUnreadCount() > 0, last.getLastMessageAt(), last.getId()).encode());
+    }
+
+    /** Число непрочитанных входящих — чтение одной строки по первичному ключу. */
+    @Transactional(readOnly = true)
+    public long getUnreadCount(Long userId) {
+        return unreadCounterRepository.findById(userId)
+                .map(UnreadCounter::getUnreadCount)
+                .orElse(0L);
+    }
+
+    /**
+     * Отмечает прочитанными входящие сообщения переписки (все или до upToMessageId включительно)
+     * и уменьшает счётчики на число реально изменённых строк — всё в одной транзакции.
+     * @return сколько сообщений стало прочитанными
+     */
+    @Transactional
+    public int markConversationRead(Long conversationId, Long userId, Long upToMessageId) {
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new IllegalArgumentException("Conversation not found with id: " + conversationId));
+        if (!conversation.getOwner().getId().equals(userId)) {
+            throw new IllegalStateException("You can only mark your own conversations as read");
+        }
+        Long listingId = conversation.getListing().getId();
+        Long counterpartId = conversation.getCounterpart().getId();
+
+        int updated = upToMessageId == null
+                ? messageRepository.markConversationRead(userId, counterpartId, listingId)
+                : messageRepository.markConversationReadUpTo(userId, counterpartId, listingId, upToMessageId);
+        if (updated > 0) {
+            conversationRepository.decrementUnread(userId, listingId, counterpartId, updated);
+            unreadCounterRepository.decrement(userId, updated);
+        }
+        return updated;
+    }
+
+    /** Новое сообщение: обе стороны переписки поднимаются наверх, у получателя +1 непрочитанное. */
+    @Transactional
+    public void onMessageCreated(Message message) {
+        touch(message.getSender(), message.getReceiver(), message, 0);
+        touch(message.getReceiver(), message.getSender(), message, 1);
+        addUnread(message.getReceiver().getId(), 1);
+    }
+
+    /** Вызывается только при переходе сообщения из непрочитанного в прочитанное. */
+    @Transactional
+    public void onMessageRead(Message message) {
+        Long receiverId = message.getReceiver().getId();
+        conversationRepository.decrementUnread(receiverId, message.getListing().getId(),
+                message.getSender().getId(), 1);
+        unreadCounterRepository.decrement(receiverId, 1);
+    }
+
+    /**
+     * Сообщение удалено: снимаем его из непрочитанных и, если оно было последним,
+     * переводим переписку на предыдущее сообщение или удаляем её.
+     */
+    @Transactional
+    public void onMessageDeleted(Message message) {
+        Long listingId = message.getListing().getId();
+        Long senderId = message.getSender().getId();
+        Long receiverId = message.getReceiver().getId();
+
+        if (!Boolean.TRUE.equals(message.getIsRead())) {
+            onMessageRead(message);
+        }
+
+        List<Message> latest = messageRepository.findLatestBetween(listingId, senderId, receiverId,
+                PageRequest.of(0, 1));
+        if (latest.isEmpty()) {
+            conversationRepository.deletePair(listingId, senderId, receiverId);
+        } else {
+            Message last = latest.get(0);
+            conversationRepository.updateLastMessage(listingId, senderId, receiverId,
+                    last.getId(), last.getCreatedAt());
+        }
+    }
+
+    /**
+     * Перед удалением объявления: непрочитанные по нему вычитаются из счётчиков владельцев,
+     * а сами переписки удаляются (сообщения удаляются каскадом вместе с объявлением).
+     */
+    @Transactional
+    public void onListingDeleted(Long listingId) {
+        for (Conversation conversation : conversationRepository.findUnreadByListingId(listingId)) {
+            unreadCounterRepository.decrement(conversation.getOwner().getId(), conversation.getUnreadCount());
+        }
+        conversationRepository.deleteByListingId(listingId);
+    }
+
+    // UPDATE, а если строки нет — вставка с ON CONFLICT DO NOTHING и повторный UPDATE:
+    // параллельные первые сообщения не падают на уникальном ключе
+    private void touch(User owner, User counterpart, Message message, int unreadDelta) {
+        Long listingId = message.getListing().getId();
+        int updated = conversationRepository.touch(owner.getId(), listingId, counterpart.getId(),
+                message.getId(), message.getCreatedAt(), unreadDelta);
+        if (updated == 0) {
+            conversationRepository.insertIfAbsent(owner.getId(), listingId, counterpart.getId(),
+                    message.getId(), message.getCreatedAt());
+            conversationRepository.touch(owner.getId(), listingId, counterpart.getId(),
+                    message.getId(), message.getCreatedAt(), unreadDelta);
+        }
+    }
+
+    private void addUnread(Long userId, long delta) {
+        if (unreadCounterRepository.increment(userId, delta) == 0) {
+            unreadCounterRepository.insertIfAbsent(userId);
+            unreadCounterRepository.increment(userId, delta);
+        }
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(size, maxPageSize);
+    }
+}
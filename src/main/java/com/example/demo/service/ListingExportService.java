@@ -0,0 +1,158 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.ListingExportRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Выгрузка объявлений в CSV или NDJSON без загрузки всей таблицы в память: строки из курсора
+ * ListingExportRepository сразу пишутся в Writer. Метрика listing.export.rows (тег format).
+ */
+@Service
+public class ListingExportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final String[] COLUMNS = {"id", "title", "description", "price", "active", "createdAt",
+            "updatedAt", "categoryId", "category", "userId", "username"};
+
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final ListingExportRepository listingExportRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public ListingExportService(ListingExportRepository listingExportRepository, ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
+        this.listingExportRepository = listingExportRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static boolean isSupportedFormat(String format) {
+        return FORMAT_CSV.equals(format) || FORMAT_NDJSON.equals(format);
+    }
+
+    /** Пишет объявления в out и возвращает их число; out не закрывается. */
+    public long export(String format, Long categoryId, Long userId, Boolean active, Writer out) throws IOException {
+        if (!isSupportedFormat(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        long[] rows = new long[1];
+        try {
+            if (FORMAT_CSV.equals(format)) {
+                writeCsvRow(out, COLUMNS);
+                listingExportRepository.streamListings(categoryId, userId, active, rs -> {
+                    writeCsvRow(out, csvValues(rs));
+                    rows[0]++;
+                });
+            } else {
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    // Разделитель строк пишется сам, после каждого объекта
+                    generator.setRootValueSeparator(null);
+                    listingExportRepository.streamListings(categoryId, userId, active, rs -> {
+                        writeJsonRow(generator, rs);
+                        rows[0]++;
+                    });
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+        meterRegistry.counter("listing.export.rows", "format", format).increment(rows[0]);
+        return rows[0];
+    }
+
+    private static String[] csvValues(ResultSet rs) throws SQLException {
+        return new String[]{
+                rs.getString("id"),
+                rs.getString("title"),
+                rs.getString("description"),
+                String.valueOf(rs.getDouble("price")),
+                String.valueOf(rs.getBoolean("is_active")),
+                timestamp(rs.getTimestamp("created_at")),
+                timestamp(rs.getTimestamp("updated_at")),
+                rs.getString("category_id"),
+                rs.getString("category_name"),
+                rs.getString("user_id"),
+                rs.getString("username")
+        };
+    }
+
+    private static void writeCsvRow(Writer out, String[] values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                writeCsvValue(out, values[i]);
+            }
+            out.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * RFC 4180: значения с запятой, кавычкой или переводом строки берутся в кавычки.
+     * Значение, которое табличный редактор принял бы за формулу (=, +, -, @, а также табуляция
+     * и возврат каретки в начале), получает префикс ' и открывается как текст.
+     */
+    private static void writeCsvValue(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char ch = value.charAt(i);
+            quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private static void writeJsonRow(JsonGenerator generator, ResultSet rs) throws SQLException {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong("id"));
+            generator.writeStringField("title", rs.getString("title"));
+            generator.writeStringField("description", rs.getString("description"));
+            generator.writeNumberField("price", rs.getDouble("price"));
+            generator.writeBooleanField("active", rs.getBoolean("is_active"));
+            generator.writeStringField("createdAt", timestamp(rs.getTimestamp("created_at")));
+            generator.writeStringField("updatedAt", timestamp(rs.getTimestamp("updated_at")));
+            generator.writeNumberField("categoryId", rs.getLong("category_id"));
+            generator.writeStringField("category", rs.getString("category_name"));
+            generator.writeNumberField("userId", rs.getLong("user_id"));
+            generator.writeStringField("username", rs.getString("username"));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String timestamp(Timestamp value) {
+        return value != null ? value.toLocalDateTime().toString() : null;
+    }
+}
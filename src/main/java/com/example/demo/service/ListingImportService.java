@@ -0,0 +1,220 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CategorySummary;
+import com.example.demo.dto.ListingImportResult;
+import com.example.demo.entity.Category;
+import com.example.demo.entity.Listing;
+import com.example.demo.entity.User;
+import com.example.demo.repository.ListingBulkRepository;
+import com.example.demo.repository.ListingRepository;
+import com.example.demo.search.ListingChangedEvent;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Массовый импорт объявлений пользователя. Строки проверяются заранее, затем сохраняются
+ * пакетами по listing.import.chunk-size, каждый в своей транзакции: ошибка пакета откатывает
+ * только его. На PostgreSQL пакет пишется через COPY, иначе — JPA с JDBC batch
+ * (hibernate.jdbc.batch_size); идентификаторы в обоих случаях берутся блоками из listings_seq.
+ *
+ * Метрика listing.import.rows (тег result: imported, rejected, failed).
+ */
+@Service
+@Timed("app.service")
+public class ListingImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_TITLE_LENGTH = 200;
+    private static final int MAX_DESCRIPTION_LENGTH = 2000;
+
+    private final ListingRepository listingRepository;
+    private final ListingBulkRepository listingBulkRepository;
+    private final CategoryService categoryService;
+    private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+    private final Counter failedRows;
+
+    @Value("${listing.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${listing.import.max-rows:50000}")
+    private int maxRows;
+
+    @Value("${listing.import.copy-enabled:true}")
+    private boolean copyEnabled;
+
+    public ListingImportService(ListingRepository listingRepository,
+                                ListingBulkRepository listingBulkRepository,
+                                CategoryService categoryService,
+                                UserService userService,
+                                ApplicationEventPublisher eventPublisher,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry) {
+        this.listingRepository = listingRepository;
+        this.listingBulkRepository = listingBulkRepository;
+        this.categoryService = categoryService;
+        this.userService = userService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.importedRows = rowsCounter(meterRegistry, "imported");
+        this.rejectedRows = rowsCounter(meterRegistry, "rejected");
+        this.failedRows = rowsCounter(meterRegistry, "failed");
+    }
+
+    /**
+     * Импортирует объявления от имени userId. У каждого объявления должны быть заполнены
+     * title, description, price и category.id; остальные поля задаются при сохранении.
+     */
+    public ListingImportResult importListings(Long userId, List<Listing> rows) {
+        if (rows == null || rows.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to import");
+        }
+        if (rows.size() > maxRows) {
+            throw new IllegalArgumentException("Too many listings in one import: " + rows.size() + " (max " + maxRows + ")");
+        }
+        long start = System.nanoTime();
+        User user = userService.getUserById(userId);
+        Map<Long, CategorySummary> categories = categoryService.getAllCategories().stream()
+                .collect(Collectors.toMap(CategorySummary::getId, Function.identity()));
+        // Объявлениям нужна сущность: по одной отсоединённой ссылке на категорию на импорт, без чтения из БД
+        Map<Long, Category> references = new HashMap<>();
+
+        List<ListingImportResult.RowError> rowErrors = new ArrayList<>();
+        List<Listing> valid = new ArrayList<>(rows.size());
+        List<Integer> validIndexes = new ArrayList<>(rows.size());
+        int rejected = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < rows.size(); i++) {
+            Listing row = rows.get(i);
+            String error = validate(row, categories);
+            if (error != null) {
+                rejected++;
+                if (rowErrors.size() < MAX_REPORTED_ERRORS) {
+                    rowErrors.add(new ListingImportResult.RowError(i, error));
+                }
+                continue;
+            }
+            Listing listing = new Listing();
+            listing.setTitle(row.getTitle().trim());
+            listing.setDescription(row.getDescription());
+            listing.setPrice(row.getPrice());
+            listing.setUser(user);
+            listing.setCategory(references.computeIfAbsent(row.getCategory().getId(),
+                    id -> reference(categories.get(id))));
+            listing.setIsActive(true);
+            listing.setCreatedAt(now);
+            listing.setUpdatedAt(now);
+            valid.add(listing);
+            validIndexes.add(i);
+        }
+
+        boolean copy = copyEnabled && Boolean.TRUE.equals(transactionTemplate.execute(status -> listingBulkRepository.isCopySupported()));
+        List<ListingImportResult.ChunkError> chunkErrors = new ArrayList<>();
+        int imported = 0;
+        int failed = 0;
+        int size = Math.max(1, chunkSize);
+        for (int from = 0, chunk = 0; from < valid.size(); from += size, chunk++) {
+            List<Listing> listings = valid.subList(from, Math.min(from + size, valid.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> saveChunk(listings, copy));
+                imported += listings.size();
+            } catch (RuntimeException e) {
+                failed += listings.size();
+                String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                int fromIndex = validIndexes.get(from);
+                int toIndex = validIndexes.get(from + listings.size() - 1);
+                logger.warn("Listing import chunk {} (rows {}-{}) for user {} rolled back: {}",
+                        chunk, fromIndex, toIndex, userId, message);
+                chunkErrors.add(new ListingImportResult.ChunkError(chunk, fromIndex, toIndex, message));
+            }
+        }
+
+        importedRows.increment(imported);
+        rejectedRows.increment(rejected);
+        failedRows.increment(failed);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        ListingImportResult result = new ListingImportResult(rows.size(), imported, rejected, failed,
+                copy ? "copy" : "batch", elapsedMs, rowErrors, chunkErrors);
+        logger.info("Imported {} of {} listings for user {} in {} ms ({} rows/s, {})",
+                imported, rows.size(), userId, elapsedMs, result.getRowsPerSecond(), result.getMethod());
+        return result;
+    }
+
+    private void saveChunk(List<Listing> listings, boolean copy) {
+        if (copy) {
+            List<Long> ids = listingBulkRepository.allocateIds(listings.size());
+            for (int i = 0; i < listings.size(); i++) {
+                listings.get(i).setId(ids.get(i));
+            }
+            listingBulkRepository.copyInsert(listings);
+        } else {
+            listingRepository.saveAll(listings);
+        }
+        // Индекс поиска обновится после коммита пакета
+        for (Listing listing : listings) {
+            eventPublisher.publishEvent(ListingChangedEvent.saved(listing));
+        }
+    }
+
+    private static String validate(Listing row, Map<Long, CategorySummary> categories) {
+        if (row == null) {
+            return "Empty row";
+        }
+        if (row.getTitle() == null || row.getTitle().isBlank()) {
+            return "Title is required";
+        }
+        if (row.getTitle().trim().length() > MAX_TITLE_LENGTH) {
+            return "Title is longer than " + MAX_TITLE_LENGTH + " characters";
+        }
+        if (row.getDescription() == null) {
+            return "Description is required";
+        }
+        if (row.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            return "Description is longer than " + MAX_DESCRIPTION_LENGTH + " characters";
+        }
+        Double price = row.getPrice();
+        if (price == null || price.isNaN() || price.isInfinite() || price < 0) {
+            return "Price must be a non-negative number";
+        }
+        Long categoryId = row.getCategory() != null ? row.getCategory().getId() : null;
+        if (categoryId == null || !categories.containsKey(categoryId)) {
+            return "Category not found: " + categoryId;
+        }
+        return null;
+    }
+
+    private static Category reference(CategorySummary summary) {
+        Category category = new Category(summary.getName(), summary.getDescription());
+        category.setId(summary.getId());
+        return category;
+    }
+
+    private static Counter rowsCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("listing.import.rows")
+                .description("Rows processed by bulk listing import")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
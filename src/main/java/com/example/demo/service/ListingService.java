@@ -1,45 +1,186 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.KeysetCursor;
+import com.example.demo.dto.ListingSummary;
+import com.example.demo.dto.SearchPage;
 import com.example.demo.entity.Category;
 import com.example.demo.entity.Listing;
 import com.example.demo.entity.User;
 import com.example.demo.repository.ListingRepository;
+import com.example.demo.repository.ListingSearchRepository;
+import com.example.demo.search.InMemoryListingIndex;
+import com.example.demo.search.ListingChangedEvent;
+import com.example.demo.search.ListingSearchHit;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("app.service")
 public class ListingService {
 
     private final ListingRepository listingRepository;
+    private final ListingSearchRepository listingSearchRepository;
+    private final InMemoryListingIndex listingIndex;
+    private final ApplicationEventPublisher eventPublisher;
     private final CategoryService categoryService;
     private final UserService userService;
+    private final InboxService inboxService;
+    private final ModerationService moderationService;
+
+    @Value("${listing.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${listing.page.max-size:100}")
+    private int maxPageSize;
 
     public ListingService(ListingRepository listingRepository,
+                         ListingSearchRepository listingSearchRepository,
+                         InMemoryListingIndex listingIndex,
+                         ApplicationEventPublisher eventPublisher,
                          CategoryService categoryService,
-                         UserService userService) {
+                         UserService userService,
+                         InboxService inboxService,
+                         ModerationService moderationService) {
         this.listingRepository = listingRepository;
+        this.listingSearchRepository = listingSearchRepository;
+        this.listingIndex = listingIndex;
+        this.eventPublisher = eventPublisher;
         this.categoryService = categoryService;
         this.userService = userService;
+        this.inboxService = inboxService;
+        this.moderationService = moderationService;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ListingSummary> getAllListings() {
+        return listingRepository.findAllSummaries();
     }
 
-    public List<Listing> getAllListings() {
-        return listingRepository.findAll();
+    /**
+     * Страница объявлений для админки. Фильтры (null — без условия), сортировка и LIMIT/OFFSET
+     * выполняются в базе, в память попадает не больше одной страницы.
+     */
+    @Transactional(readOnly = true)
+    public Page<ListingSummary> getAdminListingsPage(Long categoryId, String username, Boolean active,
+                                                     LocalDateTime createdFrom, LocalDateTime createdTo,
+                                                     Pageable pageable) {
+        return listingRepository.findAdminPage(categoryId, username, active, createdFrom, createdTo, pageable);
     }
 
+    @Transactional(readOnly = true)
     public List<Listing> getAllActiveListings() {
         return listingRepository.findAllActiveOrderByCreatedAtDesc();
     }
 
-    public List<Listing> getListingsByCategory(Long categoryId) {
-        return listingRepository.findByCategoryIdAndIsActiveTrue(categoryId);
+    /**
+     * Страница активных объявлений (новые сверху) по курсору.
+     * Стоимость запроса не зависит от номера страницы: вместо OFFSET используется
+     * условие по (created_at, id) и индекс idx_listings_active_created_id.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ListingSummary> getActiveListingsPage(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        // Берём на одну запись больше, чтобы понять, есть ли следующая страница
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<ListingSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = listingRepository.findActiveFirstPage(limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = listingRepository.findActivePageAfter(after.getCreatedAt(), after.getId(), limit);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<ListingSummary> items = rows.subList(0, pageSize);
+        ListingSummary last = items.get(pageSize - 1);
+        return new CursorPage<>(items, new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * Полнотекстовый поиск по активным объявлениям с фильтрами по категории и цене.
+     * Результаты упорядочены по релевантности (на PostgreSQL) и разбиты на страницы.
+     */
+    @Transactional(readOnly = true)
+    public SearchPage<ListingSummary> searchListings(String query, Long categoryId, Double minPrice, Double maxPrice,
+                                              Integer page, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        int pageNumber = page != null ? page : 0;
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page number must not be negative");
+        }
+        int pageSize = resolvePageSize(size);
+
+        List<Long> ids = listingSearchRepository.searchActiveIds(query.trim(), categoryId, minPrice, maxPrice,
+                pageSize + 1, pageNumber * pageSize);
+        boolean hasMore = ids.size() > pageSize;
+        if (hasMore) {
+            ids = ids.subList(0, pageSize);
+        }
+
+        if (ids.isEmpty()) {
+            return new SearchPage<>(List.of(), pageNumber, pageSize, false);
+        }
+
+        // IN (...) не сохраняет порядок — восстанавливаем ранжирование поиска
+        Map<Long, ListingSummary> byId = listingRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ListingSummary::getId, Function.identity()));
+        List<ListingSummary> items = ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new SearchPage<>(items, pageNumber, pageSize, hasMore);
+    }
+
+    /**
+     * Поиск внутри категории по индексу в памяти — без обращения к БД.
+     */
+    public List<ListingSearchHit> searchInCategory(Long categoryId, String query, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        return listingIndex.searchInCategory(categoryId, query, resolvePageSize(size));
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ListingSummary> getListingsByCategory(Long categoryId) {
+        return listingRepository.findActiveSummariesByCategoryId(categoryId);
     }
 
-    public List<Listing> getListingsByUser(Long userId) {
-        return listingRepository.findByUserId(userId);
+    @Transactional(readOnly = true)
+    public List<ListingSummary> getListingsByUser(Long userId) {
+        return listingRepository.findSummariesByUserId(userId);
     }
 
+    @Transactional(readOnly = true)
     public Listing getListingById(Long id) {
         return listingRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Listing not found with id: " + id));
@@ -48,13 +189,15 @@ public class ListingService {
     @Transactional
     public Listing createListing(Listing listing, Long userId, Long categoryId) {
         User user = userService.getUserById(userId);
-        Category category = categoryService.getCategoryById(categoryId);
+        Category category = categoryService.getCategoryEntity(categoryId);
         
         listing.setUser(user);
         listing.setCategory(category);
         listing.setIsActive(true);
         
-        return listingRepository.save(listing);
+        Listing saved = listingRepository.save(listing);
+        eventPublisher.publishEvent(ListingChangedEvent.saved(saved));
+        return saved;
     }
 
     @Transactional
@@ -70,11 +213,13 @@ public class ListingService {
         existing.setPrice(updatedListing.getPrice());
         
         if (updatedListing.getCategory() != null) {
-            Category category = categoryService.getCategoryById(updatedListing.getCategory().getId());
+            Category category = categoryService.getCategoryEntity(updatedListing.getCategory().getId());
             existing.setCategory(category);
         }
         
-        return listingRepository.save(existing);
+        Listing saved = listingRepository.save(existing);
+        eventPublisher.publishEvent(ListingChangedEvent.saved(saved));
+        return saved;
     }
 
     @Transactional
@@ -85,7 +230,10 @@ public class ListingService {
             throw new IllegalStateException("You can only delete your own listings");
         }
         
+        inboxService.onListingDeleted(id);
+        moderationService.onListingDeleted(id);
         listingRepository.deleteById(id);
+        eventPublisher.publishEvent(ListingChangedEvent.removed(id));
     }
 
     @Transactional
@@ -97,7 +245,9 @@ public class ListingService {
         }
         
         listing.setIsActive(false);
-        return listingRepository.save(listing);
+        Listing saved = listingRepository.save(listing);
+        eventPublisher.publishEvent(ListingChangedEvent.removed(id));
+        return saved;
     }
 }
 
@@ -1,45 +1,103 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.ConversationSummary;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.MessageSummary;
 import com.example.demo.entity.Listing;
 import com.example.demo.entity.Message;
 import com.example.demo.entity.User;
 import com.example.demo.repository.MessageRepository;
+import com.example.demo.stream.MessageCreatedEvent;
+import com.example.demo.stream.MessageStreamHub;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
 @Service
+@Timed("app.service")
 public class MessageService {
 
     private final MessageRepository messageRepository;
     private final ListingService listingService;
     private final UserService userService;
+    private final InboxService inboxService;
+    private final MessageStreamHub messageStreamHub;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${message.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${message.page.max-size:100}")
+    private int maxPageSize;
 
     public MessageService(MessageRepository messageRepository,
                          ListingService listingService,
-                         UserService userService) {
+                         UserService userService,
+                         InboxService inboxService,
+                         MessageStreamHub messageStreamHub,
+                         ApplicationEventPublisher eventPublisher) {
         this.messageRepository = messageRepository;
         this.listingService = listingService;
         this.userService = userService;
+        this.inboxService = inboxService;
+        this.messageStreamHub = messageStreamHub;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional(readOnly = true)
+    public List<MessageSummary> getMessagesByListing(Long listingId) {
+        return messageRepository.findSummariesByListingId(listingId);
     }
 
-    public List<Message> getMessagesByListing(Long listingId) {
-        return messageRepository.findByListingIdOrderByCreatedAtAsc(listingId);
+    @Transactional(readOnly = true)
+    public List<MessageSummary> getConversation(Long listingId, Long userId) {
+        return messageRepository.findConversationSummaries(listingId, userId);
     }
 
-    public List<Message> getConversation(Long listingId, Long userId) {
-        return messageRepository.findConversationByListingAndUser(listingId, userId);
+    @Transactional(readOnly = true)
+    public List<MessageSummary> getMessagesBySender(Long senderId, Integer page, Integer size) {
+        return messageRepository.findSummariesBySenderId(senderId, resolvePage(page, size));
     }
 
-    public List<Message> getMessagesBySender(Long senderId) {
-        return messageRepository.findBySenderId(senderId);
+    @Transactional(readOnly = true)
+    public List<MessageSummary> getMessagesByReceiver(Long receiverId, Integer page, Integer size) {
+        return messageRepository.findSummariesByReceiverId(receiverId, resolvePage(page, size));
     }
 
-    public List<Message> getMessagesByReceiver(Long receiverId) {
-        return messageRepository.findByReceiverId(receiverId);
+    private PageRequest resolvePage(Integer page, Integer size) {
+        int pageNumber = page != null ? page : 0;
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page number must not be negative");
+        }
+        if (size != null && size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        int pageSize = size != null ? Math.min(size, maxPageSize) : defaultPageSize;
+        return PageRequest.of(pageNumber, pageSize);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<ConversationSummary> getInbox(Long userId, String cursor, Integer size) {
+        return inboxService.getInbox(userId, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public long getUnreadCount(Long userId) {
+        return inboxService.getUnreadCount(userId);
+    }
+
+    /** Поток новых входящих сообщений (SSE) с досылкой пропущенного после lastEventId. */
+    public SseEmitter openStream(Long userId, Long lastEventId) {
+        return messageStreamHub.connect(userId, lastEventId);
+    }
+
+    @Transactional(readOnly = true)
     public Message getMessageById(Long id) {
         return messageRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Message not found with id: " + id));
@@ -73,7 +131,10 @@ public class MessageService {
         message.setReceiver(receiver);
         message.setIsRead(false);
         
-        return messageRepository.save(message);
+        Message saved = messageRepository.save(message);
+        inboxService.onMessageCreated(saved);
+        eventPublisher.publishEvent(new MessageCreatedEvent(receiverId, toSummary(saved)));
+        return saved;
     }
 
     @Transactional
@@ -84,8 +145,17 @@ public class MessageService {
             throw new IllegalStateException("You can only mark your own received messages as read");
         }
         
+        // Условный UPDATE: при параллельных запросах счётчики уменьшит только один из них
+        if (messageRepository.markRead(id) > 0) {
+            inboxService.onMessageRead(message);
+        }
         message.setIsRead(true);
-        return messageRepository.save(message);
+        return message;
+    }
+
+    @Transactional
+    public int markConversationAsRead(Long conversationId, Long userId, Long upToMessageId) {
+        return inboxService.markConversationRead(conversationId, userId, upToMessageId);
     }
 
     @Transactional
@@ -109,6 +179,13 @@ public class MessageService {
         }
         
         messageRepository.deleteById(id);
+        inboxService.onMessageDeleted(message);
     }
-}
 
+    private MessageSummary toSummary(Message message) {
+        return new MessageSummary(message.getId(), message.getText(), message.getCreatedAt(), message.getIsRead(),
+                message.getListing().getId(), message.getListing().getTitle(),
+                message.getSender().getId(), message.getSender().getUsername(),
+                message.getReceiver().getId(), message.getReceiver().getUsername());
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ModerationQueueItem;
+import com.example.demo.dto.SearchPage;
+import com.example.demo.repository.ListingReportStatsRepository;
+import com.example.demo.repository.ListingRepository;
+import com.example.demo.search.ListingChangedEvent;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Очередь модерации: жалобы агрегируются по объявлению в listing_report_stats.
+ * Счётчики меняются атомарными UPDATE в транзакции жалобы (ReportService), поэтому очередь
+ * читается по индексу без GROUP BY по reports, а каждое изменение затрагивает одну строку.
+ *
+ * Объявление, набравшее moderation.auto-hide.threshold ожидающих жалоб, снимается с публикации
+ * (is_active = false) до решения модератора; 0 отключает автоскрытие. Одобренная жалоба делает скрытие
+ * окончательным (auto_hidden_at сбрасывается), а если после отклонения или удаления жалоб ожидающих
+ * стало меньше порога, автоматически скрытое объявление снова публикуется.
+ */
+@Service
+@Timed("app.service")
+public class ModerationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModerationService.class);
+
+    private static final String STATUS_PENDING = "PENDING";
+    private static final String STATUS_APPROVED = "APPROVED";
+
+    private final ListingReportStatsRepository statsRepository;
+    private final ListingRepository listingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter autoHidden;
+    private final Counter autoRestored;
+
+    @Value("${moderation.auto-hide.threshold:5}")
+    private long autoHideThreshold;
+
+    @Value("${moderation.queue.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${moderation.queue.max-size:100}")
+    private int maxPageSize;
+
+    public ModerationService(ListingReportStatsRepository statsRepository,
+                             ListingRepository listingRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             MeterRegistry meterRegistry) {
+        this.statsRepository = statsRepository;
+        this.listingRepository = listingRepository;
+        this.eventPublisher = eventPublisher;
+        this.autoHidden = Counter.builder("moderation.auto.hidden")
+                .description("Listings hidden automatically after reaching the pending report threshold")
+                .register(meterRegistry);
+        this.autoRestored = Counter.builder("moderation.auto.restored")
+                .description("Auto-hidden listings published again after their reports were rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Страница очереди: объявления с ожидающими жалобами, больше жалоб и свежее — выше.
+     */
+    @Transactional(readOnly = true)
+    public SearchPage<ModerationQueueItem> getQueue(Integer page, Integer size) {
+        int pageNumber = page != null ? page : 0;
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page number must not be negative");
+        }
+        int pageSize = resolvePageSize(size);
+
+        Slice<ModerationQueueItem> slice = statsRepository.findQueue(PageRequest.of(pageNumber, pageSize));
+        return new SearchPage<>(slice.getContent(), pageNumber, pageSize, slice.hasNext());
+    }
+
+    @Transactional
+    public void onReportCreated(Long listingId, LocalDateTime reportedAt) {
+        if (statsRepository.addReport(listingId, reportedAt) == 0) {
+            statsRepository.insertIfAbsent(listingId, reportedAt);
+            statsRepository.addReport(listingId, reportedAt);
+        }
+        hideIfOverThreshold(listingId);
+    }
+
+    @Transactional
+    public void onReportStatusChanged(Long listingId, String oldStatus, String newStatus) {
+        boolean wasPending = STATUS_PENDING.equals(oldStatus);
+        boolean isPending = STATUS_PENDING.equals(newStatus);
+        if (wasPending && !isPending) {
+            statsRepository.decrementPending(listingId);
+            if (STATUS_APPROVED.equals(newStatus)) {
+                // Модератор подтвердил жалобу: объявление остаётся скрытым и больше не восстанавливается само
+                statsRepository.clearAutoHidden(listingId);
+            } else {
+                restoreIfUnderThreshold(listingId);
+            }
+        } else if (!wasPending && isPending) {
+            statsRepository.incrementPending(listingId);
+            hideIfOverThreshold(listingId);
+        }
+    }
+
+    @Transactional
+    public void onReportDeleted(Long listingId, String status) {
+        statsRepository.removeReport(listingId, STATUS_PENDING.equals(status) ? 1 : 0);
+        if (STATUS_PENDING.equals(status)) {
+            restoreIfUnderThreshold(listingId);
+        }
+    }
+
+    @Transactional
+    public void onListingDeleted(Long listingId) {
+        statsRepository.deleteByListingId(listingId);
+    }
+
+    private void hideIfOverThreshold(Long listingId) {
+        if (autoHideThreshold <= 0) {
+            return;
+        }
+        Long pending = statsRepository.findPendingCount(listingId);
+        if (pending == null || pending < autoHideThreshold) {
+            return;
+        }
+        // Условный UPDATE: скрывает только активное объявление, повторные жалобы ничего не меняют
+        LocalDateTime now = LocalDateTime.now();
+        if (listingRepository.deactivateIfActive(listingId, now) == 1) {
+            statsRepository.markAutoHidden(listingId, now);
+            autoHidden.increment();
+            eventPublisher.publishEvent(ListingChangedEvent.removed(listingId));
+            logger.info("Listing {} hidden after {} pending reports", listingId, pending);
+        }
+    }
+
+    private void restoreIfUnderThreshold(Long listingId) {
+        Long pending = statsRepository.findPendingCount(listingId);
+        if (autoHideThreshold > 0 && pending != null && pending >= autoHideThreshold) {
+            return;
+        }
+        if (statsRepository.clearAutoHidden(listingId) == 0) {
+            return;
+        }
+        listingRepository.findById(listingId)
+                .filter(listing -> !Boolean.TRUE.equals(listing.getIsActive()))
+                .ifPresent(listing -> {
+                    listing.setIsActive(true);
+                    autoRestored.increment();
+                    eventPublisher.publishEvent(ListingChangedEvent.saved(listing));
+                    logger.info("Listing {} published again, {} pending reports left", listingId, pending);
+                });
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(size, maxPageSize);
+    }
+}
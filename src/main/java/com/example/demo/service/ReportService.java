@@ -1,45 +1,72 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.ReportSummary;
 import com.example.demo.entity.Listing;
 import com.example.demo.entity.Report;
 import com.example.demo.entity.User;
 import com.example.demo.repository.ReportRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
+@Timed("app.service")
 public class ReportService {
 
     private final ReportRepository reportRepository;
     private final ListingService listingService;
     private final UserService userService;
+    private final ModerationService moderationService;
 
     public ReportService(ReportRepository reportRepository,
                         ListingService listingService,
-                        UserService userService) {
+                        UserService userService,
+                        ModerationService moderationService) {
         this.reportRepository = reportRepository;
         this.listingService = listingService;
         this.userService = userService;
+        this.moderationService = moderationService;
     }
 
+    @Transactional(readOnly = true)
     public List<Report> getAllReports() {
         return reportRepository.findAll();
     }
 
+    /**
+     * Страница жалоб для админки: фильтры (null — без условия) и сортировка выполняются в базе.
+     */
+    @Transactional(readOnly = true)
+    public Page<ReportSummary> getAdminReportsPage(String status, Long categoryId, String username,
+                                                   LocalDateTime createdFrom, LocalDateTime createdTo,
+                                                   Pageable pageable) {
+        if (status != null) {
+            validateStatus(status);
+        }
+        return reportRepository.findAdminPage(status, categoryId, username, createdFrom, createdTo, pageable);
+    }
+
+    @Transactional(readOnly = true)
     public List<Report> getReportsByListing(Long listingId) {
         return reportRepository.findByListingId(listingId);
     }
 
+    @Transactional(readOnly = true)
     public List<Report> getReportsByUser(Long userId) {
         return reportRepository.findByUserId(userId);
     }
 
+    @Transactional(readOnly = true)
     public List<Report> getReportsByStatus(String status) {
         return reportRepository.findByStatus(status);
     }
 
+    @Transactional(readOnly = true)
     public Report getReportById(Long id) {
         return reportRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Report not found with id: " + id));
@@ -62,27 +89,34 @@ public class ReportService {
         report.setUser(user);
         report.setStatus("PENDING");
         
-        return reportRepository.save(report);
+        Report saved = reportRepository.save(report);
+        moderationService.onReportCreated(listingId, saved.getCreatedAt());
+        return saved;
     }
 
     @Transactional
     public Report updateReportStatus(Long id, String status) {
         Report report = getReportById(id);
-        
+        validateStatus(status);
+
+        String oldStatus = report.getStatus();
+        report.setStatus(status);
+        Report saved = reportRepository.save(report);
+        moderationService.onReportStatusChanged(report.getListing().getId(), oldStatus, status);
+        return saved;
+    }
+
+    private static void validateStatus(String status) {
         if (!status.equals("PENDING") && !status.equals("APPROVED") && !status.equals("REJECTED")) {
             throw new IllegalArgumentException("Invalid status. Must be PENDING, APPROVED, or REJECTED");
         }
-        
-        report.setStatus(status);
-        return reportRepository.save(report);
     }
 
     @Transactional
     public void deleteReport(Long id) {
-        if (!reportRepository.existsById(id)) {
-            throw new IllegalArgumentException("Report not found with id: " + id);
-        }
-        reportRepository.deleteById(id);
+        Report report = getReportById(id);
+        reportRepository.delete(report);
+        moderationService.onReportDeleted(report.getListing().getId(), report.getStatus());
     }
 }
 
@@ -0,0 +1,190 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.RefreshSession;
+import com.example.demo.entity.User;
+import com.example.demo.repository.RefreshSessionRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.InvalidRefreshTokenException;
+import com.example.demo.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Выдача и ротация пар токенов. Каждый refresh-токен записывается в refresh_sessions;
+ * при обмене он отзывается и выдаётся новый того же семейства. Повторное предъявление
+ * обменянного токена означает, что его копия у кого-то ещё, — отзываем всё семейство.
+ */
+@Service
+public class TokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenService.class);
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final RefreshSessionRepository refreshSessionRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int purgeBatchSize;
+
+    private final Counter reuseDetected;
+    private final Counter purged;
+
+    public TokenService(JwtTokenProvider jwtTokenProvider,
+                        RefreshSessionRepository refreshSessionRepository,
+                        UserRepository userRepository,
+                        TransactionTemplate transactionTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${jwt.refresh-session.purge-batch-size:1000}") int purgeBatchSize) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.refreshSessionRepository = refreshSessionRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.purgeBatchSize = purgeBatchSize;
+        this.reuseDetected = Counter.builder("auth.refresh.reuse_detected")
+                .description("Already rotated refresh tokens presented again")
+                .register(meterRegistry);
+        this.purged = Counter.builder("auth.refresh_sessions.purged")
+                .description("Expired refresh sessions deleted")
+                .register(meterRegistry);
+    }
+
+    /** Новая пара токенов при входе — начало нового семейства. */
+    @Transactional
+    public TokenPair createTokenPair(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Обмен refresh-токена на новую пару. Поиск по уникальному индексу и условный UPDATE:
+     * O(1) независимо от числа выданных токенов.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public TokenPair refreshTokens(String refreshToken) {
+        Claims claims = jwtTokenProvider.parseRefreshToken(refreshToken);
+        if (claims == null || claims.getId() == null) {
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+
+        RefreshSession session = refreshSessionRepository.findByTokenHash(hashJti(claims.getId()))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Unknown refresh token"));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (refreshSessionRepository.revoke(session.getId(), now) == 0) {
+            // Отзыв семейства должен пережить исключение — поэтому noRollbackFor
+            int revoked = refreshSessionRepository.revokeFamily(session.getFamilyId(), now);
+            reuseDetected.increment();
+            logger.warn("Refresh token reuse detected for user {}, revoked {} sessions of family {}",
+                    session.getUserId(), revoked, session.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token has already been used");
+        }
+
+        User user = userRepository.findById(session.getUserId())
+                .filter(User::isEnabled)
+                .orElseThrow(() -> new InvalidRefreshTokenException("User not found or disabled"));
+        return issue(user, session.getFamilyId());
+    }
+
+    /**
+     * Выход: отзывает семейство, к которому относится токен.
+     * @return false, если токен недействителен или неизвестен
+     */
+    @Transactional
+    public boolean revokeRefreshToken(String refreshToken) {
+        Claims claims = jwtTokenProvider.parseRefreshToken(refreshToken);
+        if (claims == null || claims.getId() == null) {
+            return false;
+        }
+        Optional<RefreshSession> session = refreshSessionRepository.findByTokenHash(hashJti(claims.getId()));
+        session.ifPresent(s -> refreshSessionRepository.revokeFamily(s.getFamilyId(), LocalDateTime.now()));
+        return session.isPresent();
+    }
+
+    /**
+     * Удаление истёкших сессий пачками, каждая в своей транзакции, чтобы не держать
+     * длинных блокировок при большом числе строк.
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-session.purge-interval-ms:3600000}",
+               initialDelayString = "${jwt.refresh-session.purge-initial-delay-ms:60000}")
+    public void purgeExpiredSessions() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int total = 0;
+            int deleted;
+            do {
+                Integer batch = transactionTemplate.execute(status ->
+                        refreshSessionRepository.deleteExpiredBatch(now, purgeBatchSize));
+                deleted = batch != null ? batch : 0;
+                total += deleted;
+            } while (deleted == purgeBatchSize);
+
+            if (total > 0) {
+                purged.increment(total);
+                logger.info("Purged {} expired refresh sessions", total);
+            }
+        } catch (Exception e) {
+            logger.warn("Refresh session purge failed: {}", e.getMessage());
+        }
+    }
+
+    private TokenPair issue(User user, String familyId) {
+        String jti = UUID.randomUUID().toString();
+        String refreshToken = jwtTokenProvider.generateRefreshToken(user.getUsername(), jti);
+
+        LocalDateTime now = LocalDateTime.now();
+        refreshSessionRepository.save(new RefreshSession(hashJti(jti), user.getId(), familyId, now,
+                now.plus(jwtTokenProvider.getRefreshTokenExpiration(), ChronoUnit.MILLIS)));
+
+        String accessToken = jwtTokenProvider.generateAccessToken(
+                user.getId(), user.getUsername(), user.getEmail(), user.getRole());
+        return new TokenPair(accessToken, refreshToken, jwtTokenProvider.getAccessTokenExpiration());
+    }
+
+    private static String hashJti(String jti) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(jti.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static class TokenPair {
+        private final String accessToken;
+        private final String refreshToken;
+        private final long expiresIn;
+
+        public TokenPair(String accessToken, String refreshToken, long expiresIn) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+            this.expiresIn = expiresIn;
+        }
+
+        public String getAccessToken() {
+            return accessToken;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+
+        public long getExpiresIn() {
+            return expiresIn;
+        }
+    }
+}
@@ -2,27 +2,44 @@ package com.example.demo.service;
 
 import com.example.demo.entity.User;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.PasswordHashingRejectedException;
+import com.example.demo.security.UserStatusCache;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.UUID;
 import java.util.regex.Pattern;
 
 @Service
+@Timed("app.service")
 public class UserService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserStatusCache userStatusCache;
+
+    // Хеш случайного пароля текущей стоимостью: создаётся при старте, чтобы и первый вход
+    // с неизвестным именем занимал столько же, сколько проверка настоящего пароля
+    private final String dummyHash;
 
     private static final String PASSWORD_PATTERN =
             "^(?=.*[0-9])(?=.*[!@#$%^&*()\\-_=+\\[\\]{};:'\",.<>?/`~|\\\\]).{8,}$";
     private static final Pattern pattern = Pattern.compile(PASSWORD_PATTERN);
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       UserStatusCache userStatusCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userStatusCache = userStatusCache;
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
     }
 
     private void validatePassword(String password) {
@@ -42,6 +59,7 @@ public class UserService {
         }
     }
 
+    @Transactional(readOnly = true)
     public User getUserById(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
@@ -51,6 +69,7 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    @Transactional(readOnly = true)
     public User findByUsername(String username) {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
@@ -74,11 +93,42 @@ public class UserService {
     }
 
     public boolean authenticate(String username, String password) {
+        return verifyCredentials(username, password) != null;
+    }
+
+    /**
+     * Проверка логина и пароля. Для неизвестного имени пароль сверяется с фиктивным хешем той же стоимости,
+     * чтобы время ответа не выдавало, существует ли такой пользователь.
+     * @return пользователь или null, если учётные данные неверны
+     */
+    public User verifyCredentials(String username, String password) {
+        if (username == null || password == null) {
+            return null;
+        }
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null) {
+            passwordEncoder.matches(password, dummyHash);
+            return null;
+        }
+        return passwordEncoder.matches(password, user.getPassword()) ? user : null;
+    }
+
+    /**
+     * Вызывается после успешной проверки пароля: если хеш создан со старыми параметрами
+     * (меньшая стоимость BCrypt или нет префикса {bcrypt}), сохраняем новый.
+     * Перегрузка пула хеширования вход не ломает — попробуем при следующем входе.
+     */
+    @Transactional
+    public void upgradePasswordHash(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return;
+        }
         try {
-            User user = findByUsername(username);
-            return passwordEncoder.matches(password, user.getPassword());
-        } catch (RuntimeException e) {
-            return false;
+            String hash = passwordEncoder.encode(rawPassword);
+            userRepository.updatePassword(user.getId(), hash);
+            logger.info("Password hash upgraded for user {}", user.getId());
+        } catch (PasswordHashingRejectedException e) {
+            logger.warn("Password hash upgrade skipped for user {}: {}", user.getId(), e.getMessage());
         }
     }
 
@@ -108,7 +158,9 @@ public class UserService {
             existing.setRole(updatedUser.getRole());
         }
         
-        return userRepository.save(existing);
+        User saved = userRepository.save(existing);
+        userStatusCache.evict(id);
+        return saved;
     }
 
     @Transactional
@@ -117,5 +169,6 @@ public class UserService {
             throw new RuntimeException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        userStatusCache.evict(id);
     }
 }
@@ -0,0 +1,26 @@
+package com.example.demo.stream;
+
+import com.example.demo.dto.MessageSummary;
+
+/**
+ * Новое сообщение для доставки получателю через MessageStreamHub.
+ * Публикуется из MessageService и рассылается только после коммита транзакции.
+ */
+public class MessageCreatedEvent {
+
+    private final Long receiverId;
+    private final MessageSummary message;
+
+    public MessageCreatedEvent(Long receiverId, MessageSummary message) {
+        this.receiverId = receiverId;
+        this.message = message;
+    }
+
+    public Long getReceiverId() {
+        return receiverId;
+    }
+
+    public MessageSummary getMessage() {
+        return message;
+    }
+}
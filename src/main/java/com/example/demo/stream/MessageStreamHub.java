@@ -0,0 +1,211 @@
+package com.example.demo.stream;
+
+import com.example.demo.dto.MessageSummary;
+import com.example.demo.repository.MessageRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Доставка новых сообщений по Server-Sent Events с разводкой по пользователям.
+ * <p>
+ * У каждого подключения своя ограниченная очередь и свой виртуальный поток-писатель:
+ * простаивающее подключение — это припаркованный виртуальный поток, а медленный клиент
+ * не задерживает ни коммит сообщения, ни остальных получателей. При переполнении очереди
+ * подключение закрывается, и клиент переподключается с Last-Event-ID.
+ */
+@Component
+public class MessageStreamHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageStreamHub.class);
+
+    private static final Object HEARTBEAT = new Object();
+    private static final Object CLOSE = new Object();
+
+    private final MessageRepository messageRepository;
+    private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final ExecutorService writers =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("message-stream-", 0).factory());
+
+    @Value("${message.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${message.stream.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${message.stream.replay-limit:100}")
+    private int replayLimit;
+
+    @Value("${message.stream.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    public MessageStreamHub(MessageRepository messageRepository) {
+        this.messageRepository = messageRepository;
+    }
+
+    /**
+     * Открывает поток для пользователя. Если передан lastEventId, сначала досылаются
+     * входящие сообщения с большим id, затем — новые по мере появления.
+     */
+    public SseEmitter connect(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = new Connection(userId, emitter, queueCapacity);
+
+        Set<Connection> userConnections = connections.computeIfAbsent(userId, id -> new CopyOnWriteArraySet<>());
+        userConnections.add(connection);
+        connectionCount.incrementAndGet();
+        // Ограничиваем число вкладок/устройств: самое старое подключение закрывается
+        if (userConnections.size() > maxConnectionsPerUser) {
+            userConnections.stream().filter(c -> c != connection).findFirst().ifPresent(Connection::close);
+        }
+
+        emitter.onCompletion(connection::close);
+        emitter.onTimeout(connection::close);
+        emitter.onError(error -> connection.close());
+
+        // Регистрация до досылки: сообщения, пришедшие во время неё, ждут в очереди
+        writers.execute(() -> connection.run(lastEventId));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageCreated(MessageCreatedEvent event) {
+        Set<Connection> userConnections = connections.get(event.getReceiverId());
+        if (userConnections == null) {
+            return;
+        }
+        for (Connection connection : userConnections) {
+            connection.offer(event.getMessage());
+        }
+    }
+
+    /** Комментарий-пинг держит соединение через прокси и выявляет отключившихся клиентов. */
+    @Scheduled(fixedDelayString = "${message.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                connection.queue.offer(HEARTBEAT);
+            }
+        }
+    }
+
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connections.values().forEach(set -> set.forEach(Connection::close));
+        writers.shutdown();
+    }
+
+    private void unregister(Connection connection) {
+        Set<Connection> userConnections = connections.get(connection.userId);
+        if (userConnections != null && userConnections.remove(connection)) {
+            connectionCount.decrementAndGet();
+            if (userConnections.isEmpty()) {
+                connections.remove(connection.userId, userConnections);
+            }
+        }
+    }
+
+    private final class Connection {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Object> queue;
+        private final Set<Long> replayed = new HashSet<>();
+
+        private Connection(Long userId, SseEmitter emitter, int capacity) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new LinkedBlockingQueue<>(capacity);
+        }
+
+        private void offer(MessageSummary message) {
+            if (!queue.offer(message)) {
+                logger.debug("Message stream queue overflow for user {}, closing connection", userId);
+                close();
+            }
+        }
+
+        private void close() {
+            unregister(this);
+            // Писатель может быть занят отправкой — освобождаем место под сигнал закрытия
+            queue.clear();
+            queue.offer(CLOSE);
+        }
+
+        private void run(Long lastEventId) {
+            try {
+                if (lastEventId != null) {
+                    replay(lastEventId);
+                }
+                while (true) {
+                    Object item = queue.take();
+                    if (item == CLOSE) {
+                        break;
+                    }
+                    if (item == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    } else {
+                        MessageSummary message = (MessageSummary) item;
+                        if (!replayed.remove(message.getId())) {
+                            send(message);
+                        }
+                    }
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // Клиент отключился или emitter уже завершён
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.warn("Message stream for user {} failed: {}", userId, e.getMessage());
+                emitter.completeWithError(e);
+            } finally {
+                unregister(this);
+            }
+        }
+
+        private void replay(Long lastEventId) throws IOException {
+            List<MessageSummary> missed = messageRepository.findSummariesByReceiverIdAfter(
+                    userId, lastEventId, PageRequest.of(0, replayLimit));
+            for (MessageSummary message : missed) {
+                send(message);
+                replayed.add(message.getId());
+            }
+            if (missed.size() == replayLimit) {
+                // Пропущено больше, чем досылаем — клиенту стоит перечитать входящие целиком
+                emitter.send(SseEmitter.event().name("resync").data(""));
+            }
+        }
+
+        private void send(MessageSummary message) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(message.getId()))
+                    .name("message")
+                    .data(message));
+        }
+    }
+}
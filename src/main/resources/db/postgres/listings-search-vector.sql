@@ -0,0 +1,15 @@
+-- Полнотекстовый поиск по объявлениям (PostgreSQL). Применяется до выкладки, вне транзакции
+-- (CREATE INDEX CONCURRENTLY в транзакции не выполняется):
+--   psql "$DB_URL" -v ON_ERROR_STOP=1 -f listings-search-vector.sql
+-- Конфигурация 'russian' должна совпадать с listing.search.ts-config — SearchIndexInitializer это проверяет.
+
+-- Генерируемая колонка переписывает таблицу под ACCESS EXCLUSIVE: выполнять в окно обслуживания.
+-- Вектор: title весит больше, чем description
+ALTER TABLE listings ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('russian', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('russian', coalesce(description, '')), 'B')) STORED;
+
+-- Индекс строится без блокировки записи. Прерванная сборка оставляет индекс INVALID, а IF NOT EXISTS
+-- его не пересоздаст: сначала DROP INDEX CONCURRENTLY idx_listings_search_vector, затем повторить
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_listings_search_vector ON listings USING GIN (search_vector);
@@ -0,0 +1,137 @@
+package com.example.demo.config;
+
+import com.example.demo.controller.GlobalExceptionHandler;
+import com.example.demo.repository.ListingSearchRepository;
+import com.example.demo.search.SearchUnavailableException;
+import com.example.demo.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Подготовка полнотекстового индекса без Spring: на H2 индекс создаётся на месте, на PostgreSQL
+ * только проверяется результат миграции. Если индекс не готов, поиск отключается и отвечает 503.
+ */
+class SearchIndexInitializerTests {
+
+    private static final String VECTOR_EXPRESSION = "(setweight(to_tsvector('russian'::regconfig, "
+            + "COALESCE(title, ''::character varying)::text), 'A'::\"char\") || ...)";
+
+    @Test
+    void h2IndexIsCreatedAndSearchable() {
+        DataSource dataSource = h2();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE listings (id BIGINT PRIMARY KEY, title VARCHAR(255), "
+                + "description VARCHAR(2000), price DOUBLE PRECISION, category_id BIGINT, "
+                + "created_at TIMESTAMP, is_active BOOLEAN)");
+        ListingSearchRepository repository = new ListingSearchRepository(new NamedParameterJdbcTemplate(dataSource));
+
+        new SearchIndexInitializer(jdbcTemplate, repository).afterSingletonsInstantiated();
+        jdbcTemplate.update("INSERT INTO listings VALUES (1, 'Велосипед горный', 'Почти новый', 100, 1, "
+                + "CURRENT_TIMESTAMP, TRUE)");
+
+        assertTrue(repository.isAvailable());
+        assertEquals(List.of(1L), repository.searchActiveIds("велосипед", null, null, null, 10, 0));
+    }
+
+    @Test
+    void h2FailureDisablesSearch() {
+        // Таблицы listings нет: FT_CREATE_INDEX падает
+        DataSource dataSource = h2();
+        ListingSearchRepository repository = new ListingSearchRepository(new NamedParameterJdbcTemplate(dataSource));
+
+        new SearchIndexInitializer(new JdbcTemplate(dataSource), repository).afterSingletonsInstantiated();
+
+        assertFalse(repository.isAvailable());
+        SearchUnavailableException e = assertThrows(SearchUnavailableException.class,
+                () -> repository.searchActiveIds("велосипед", null, null, null, 10, 0));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, new GlobalExceptionHandler().handleSearchUnavailable(e).getStatusCode());
+    }
+
+    @Test
+    void postgresMigrationIsCheckedNotApplied() {
+        PostgresCatalog catalog = new PostgresCatalog(List.of(VECTOR_EXPRESSION), true);
+        ListingSearchRepository repository = postgresRepository("russian");
+
+        new SearchIndexInitializer(catalog, repository).afterSingletonsInstantiated();
+
+        assertTrue(repository.isAvailable());
+        assertEquals(List.of(), catalog.executed, "DDL belongs to the migration, not to startup");
+    }
+
+    @Test
+    void postgresSearchIsDisabledUntilMigrationIsComplete() {
+        // Колонки нет
+        assertFalse(initPostgres(new PostgresCatalog(List.of(), false), "russian"));
+        // Колонка есть, индекс не достроен (прерванный CREATE INDEX CONCURRENTLY)
+        assertFalse(initPostgres(new PostgresCatalog(List.of(VECTOR_EXPRESSION), false), "russian"));
+        // Вектор построен с другой конфигурацией, чем запросы
+        assertFalse(initPostgres(new PostgresCatalog(List.of(VECTOR_EXPRESSION), true), "english"));
+    }
+
+    private static boolean initPostgres(PostgresCatalog catalog, String tsConfig) {
+        ListingSearchRepository repository = postgresRepository(tsConfig);
+        new SearchIndexInitializer(catalog, repository).afterSingletonsInstantiated();
+        assertEquals(List.of(), catalog.executed);
+        return repository.isAvailable();
+    }
+
+    private static DataSource h2() {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + TestData.unique("search") + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static ListingSearchRepository postgresRepository(String tsConfig) {
+        return new ListingSearchRepository(null) {
+            @Override
+            public boolean isPostgres() {
+                return true;
+            }
+
+            @Override
+            public String getTsConfig() {
+                return tsConfig;
+            }
+        };
+    }
+
+    /** Ответы системного каталога PostgreSQL на запросы проверки; любой DDL записывается. */
+    private static final class PostgresCatalog extends JdbcTemplate {
+
+        private final List<String> vectorExpression;
+        private final boolean indexValid;
+        private final List<String> executed = new ArrayList<>();
+
+        PostgresCatalog(List<String> vectorExpression, boolean indexValid) {
+            this.vectorExpression = vectorExpression;
+            this.indexValid = indexValid;
+        }
+
+        @Override
+        public <T> List<T> queryForList(String sql, Class<T> elementType) {
+            assertEquals(SearchIndexInitializer.SEARCH_VECTOR_EXPRESSION, sql);
+            return vectorExpression.stream().map(elementType::cast).toList();
+        }
+
+        @Override
+        public <T> T queryForObject(String sql, Class<T> requiredType) {
+            assertEquals(SearchIndexInitializer.SEARCH_INDEX_VALID, sql);
+            return requiredType.cast(indexValid);
+        }
+
+        @Override
+        public void execute(String sql) {
+            executed.add(sql);
+        }
+    }
+}
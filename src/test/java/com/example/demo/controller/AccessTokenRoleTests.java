@@ -0,0 +1,57 @@
+package com.example.demo.controller;
+
+import com.example.demo.entity.User;
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.service.UserService;
+import com.example.demo.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Access-токен принимается, только пока роль в нём совпадает с текущей ролью пользователя.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class AccessTokenRoleTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void demotedAdminTokenIsRefused() throws Exception {
+        String adminName = TestData.unique("demoted_admin");
+        long adminId = new TestData(jdbcTemplate).user(adminName, "unused", "ADMIN");
+        String token = jwtTokenProvider.generateAccessToken(adminId, adminName, adminName + "@example.com", "ADMIN");
+
+        // Неизвестный формат: 400 означает, что запрос прошёл проверку роли и дошёл до контроллера
+        mockMvc.perform(get("/api/admin/listings/export").param("format", "xml")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+
+        User demoted = new User();
+        demoted.setRole("USER");
+        userService.updateUser(adminId, demoted);
+
+        mockMvc.perform(get("/api/admin/listings/export").param("format", "xml")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+}
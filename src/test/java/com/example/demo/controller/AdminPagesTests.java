@@ -0,0 +1,155 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.ListingSummary;
+import com.example.demo.dto.ReportSummary;
+import com.example.demo.monitoring.QueryStatistics;
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.example.demo.support.QueryBudgetAssertions.assertMaxQueries;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Страницы админки: фильтры, сортировка с id вторым ключом, ссылки на соседние страницы
+ * с сохранением фильтров и 400 на недопустимые параметры.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class AdminPagesTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Test
+    void listingsAreFilteredSortedAndPaged() throws Throwable {
+        TestData data = new TestData(jdbcTemplate);
+        String seller = TestData.unique("admin_seller");
+        long sellerId = data.user(seller);
+        long categoryId = data.category(TestData.unique("Админка"));
+        long cheap = listing(data, "Дешёвое", sellerId, categoryId, 10);
+        long middle = listing(data, "Среднее", sellerId, categoryId, 20);
+        long expensive = listing(data, "Дорогое", sellerId, categoryId, 30);
+        long inactive = listing(data, "Снятое", sellerId, categoryId, 5);
+        jdbcTemplate.update("UPDATE listings SET is_active = FALSE WHERE id = ?", inactive);
+
+        // Фильтры в строке запроса, как из формы: ссылки на соседние страницы строятся из неё
+        MockHttpServletRequestBuilder request =
+                admin(get("/admin/listings?username={u}&active=true&sort=price&dir=asc&size=2", seller));
+        MvcResult[] holder = new MvcResult[1];
+        QueryStatistics statistics = assertMaxQueries(10, () -> holder[0] = perform(request));
+        MvcResult first = holder[0];
+        // Только заданные фильтры: без (:x IS NULL OR ...), которое мешает индексам в общем плане
+        statistics.getStatementCounts().keySet().stream()
+                .filter(sql -> sql.contains("listings"))
+                .forEach(sql -> assertFalse(sql.toLowerCase().contains("is null"), sql));
+        assertEquals(List.of(cheap, middle), listingIds(first));
+        Page<?> page = (Page<?>) model(first).get("page");
+        assertEquals(3, page.getTotalElements());
+        assertNull(model(first).get("prevUrl"));
+        String nextUrl = (String) model(first).get("nextUrl");
+        assertTrue(nextUrl.contains("page=1") && nextUrl.contains("username=" + seller) && nextUrl.contains("active=true"),
+                nextUrl);
+
+        MvcResult second = perform(admin(get(nextUrl)));
+        assertEquals(List.of(expensive), listingIds(second));
+        assertTrue(((String) model(second).get("prevUrl")).contains("page=0"));
+        assertNull(model(second).get("nextUrl"));
+    }
+
+    @Test
+    void listingsAreFilteredByCreationDate() throws Exception {
+        TestData data = new TestData(jdbcTemplate);
+        long sellerId = data.user(TestData.unique("admin_dates"));
+        long categoryId = data.category(TestData.unique("Админка"));
+        long old = data.listing("Старое", sellerId, categoryId);
+        long recent = data.listing("Новое", sellerId, categoryId);
+        jdbcTemplate.update("UPDATE listings SET created_at = TIMESTAMP '2020-06-15 12:00:00' WHERE id = ?", old);
+
+        MvcResult onlyOld = perform(admin(get("/admin/listings")).param("categoryId", String.valueOf(categoryId))
+                .param("from", "2020-06-15").param("to", "2020-06-15"));
+        assertEquals(List.of(old), listingIds(onlyOld));
+
+        MvcResult afterOld = perform(admin(get("/admin/listings")).param("categoryId", String.valueOf(categoryId))
+                .param("from", "2020-06-16"));
+        assertEquals(List.of(recent), listingIds(afterOld));
+    }
+
+    @Test
+    void reportsAreFilteredByStatusAndCategory() throws Exception {
+        TestData data = new TestData(jdbcTemplate);
+        long sellerId = data.user(TestData.unique("admin_rep_seller"));
+        long categoryId = data.category(TestData.unique("Админка"));
+        long listingId = data.listing("С жалобами", sellerId, categoryId);
+        long pending = data.report(listingId, data.user(TestData.unique("admin_rep")), "Спам");
+        long approved = data.report(listingId, data.user(TestData.unique("admin_rep")), "Мошенничество");
+        long other = data.report(listingId, data.user(TestData.unique("admin_rep")), "Дубль");
+        jdbcTemplate.update("UPDATE reports SET status = 'APPROVED' WHERE id = ?", approved);
+
+        MvcResult result = perform(admin(get("/admin/reports")).param("status", "PENDING")
+                .param("categoryId", String.valueOf(categoryId)).param("sort", "id").param("dir", "desc"));
+
+        @SuppressWarnings("unchecked")
+        List<ReportSummary> reports = (List<ReportSummary>) model(result).get("reports");
+        assertEquals(List.of(other, pending), reports.stream().map(ReportSummary::getId).toList());
+    }
+
+    @Test
+    void invalidParametersAreRejected() throws Exception {
+        mockMvc.perform(admin(get("/admin/listings")).param("sort", "password")).andExpect(status().isBadRequest());
+        mockMvc.perform(admin(get("/admin/listings")).param("dir", "sideways")).andExpect(status().isBadRequest());
+        mockMvc.perform(admin(get("/admin/reports")).param("from", "2024-02-01").param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(admin(get("/admin/categories")).param("page", "-1")).andExpect(status().isBadRequest());
+    }
+
+    private long listing(TestData data, String title, long sellerId, long categoryId, double price) {
+        long id = data.listing(title, sellerId, categoryId);
+        jdbcTemplate.update("UPDATE listings SET price = ? WHERE id = ?", price, id);
+        return id;
+    }
+
+    private MockHttpServletRequestBuilder admin(MockHttpServletRequestBuilder request) {
+        String adminName = TestData.unique("pages_admin");
+        long adminId = new TestData(jdbcTemplate).user(adminName, "unused", "ADMIN");
+        String token = jwtTokenProvider.generateAccessToken(adminId, adminName, adminName + "@example.com", "ADMIN");
+        return request.header("Authorization", "Bearer " + token);
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+    }
+
+    private static Map<String, Object> model(MvcResult result) {
+        return result.getModelAndView().getModel();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> listingIds(MvcResult result) {
+        return ((List<ListingSummary>) model(result).get("listings")).stream().map(ListingSummary::getId).toList();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.controller;
+
+import com.example.demo.support.TestData;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Вход: ограничение частоты по имени пользователя (security.login-rate-limit.username.capacity=5),
+ * в том числе для параллельных попыток, и одинаковая работа BCrypt для существующего и неизвестного имени.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class AuthLoginTests {
+
+    private static final String PASSWORD = "Str0ng!Passw0rd";
+    private static final int USERNAME_CAPACITY = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void successfulLoginsDoNotSpendUsernameBucket() throws Exception {
+        String username = newUser();
+        for (int i = 0; i < USERNAME_CAPACITY + 2; i++) {
+            // Разные адреса: проверяется корзина имени, а не корзина IP
+            login(username, PASSWORD, "10.15.1." + i).andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void failedLoginsLockUsernameAcrossAddresses() throws Exception {
+        String username = newUser();
+        for (int i = 0; i < USERNAME_CAPACITY; i++) {
+            login(username, "Wr0ng!Password", "10.15.2." + i).andExpect(status().isUnauthorized());
+        }
+
+        login(username, PASSWORD, "10.15.2.100")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void concurrentFailedLoginsCannotOvershootUsernameBucket() throws Exception {
+        String username = newUser();
+        int attempts = USERNAME_CAPACITY + 3;
+
+        // Все попытки стартуют до того, как хоть одна проверка пароля закончится
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < attempts; i++) {
+                String address = "10.15.4." + i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return login(username, "Wr0ng!Password", address).andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> result : results) {
+                statuses.add(result.get());
+            }
+
+            // До BCrypt дошли не больше попыток, чем токенов в корзине (503 — пул хеширования перегружен)
+            assertEquals(attempts - USERNAME_CAPACITY, Collections.frequency(statuses, 429), statuses.toString());
+            assertEquals(USERNAME_CAPACITY, Collections.frequency(statuses, 401) + Collections.frequency(statuses, 503),
+                    statuses.toString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void unknownUsernameRunsOneBcryptCheckAgainstPrecomputedHash() throws Exception {
+        double matchesBefore = hashingCount("matches");
+        double encodesBefore = hashingCount("encode");
+
+        login(TestData.unique("nobody"), PASSWORD, "10.15.3.1").andExpect(status().isUnauthorized());
+
+        assertEquals(matchesBefore + 1, hashingCount("matches"), "unknown user must cost one BCrypt check");
+        assertEquals(encodesBefore, hashingCount("encode"), "dummy hash must be built at startup, not on first use");
+    }
+
+    private String newUser() {
+        String username = TestData.unique("login");
+        new TestData(jdbcTemplate).user(username, passwordEncoder.encode(PASSWORD), "USER");
+        return username;
+    }
+
+    private ResultActions login(String username, String password, String remoteAddr) throws Exception {
+        return mockMvc.perform(post("/auth/login")
+                .with(request -> {
+                    request.setRemoteAddr(remoteAddr);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"));
+    }
+
+    private double hashingCount(String operation) {
+        return meterRegistry.get("password.hashing.duration").tag("operation", operation).timer().count();
+    }
+}
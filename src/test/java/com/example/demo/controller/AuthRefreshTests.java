@@ -0,0 +1,112 @@
+package com.example.demo.controller;
+
+import com.example.demo.support.TestData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ротация refresh-токенов: каждый обменивается один раз, повторное предъявление обменянного
+ * токена отзывает всё семейство, выход отзывает семейство и отвергает неизвестный токен.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class AuthRefreshTests {
+
+    private static final String PASSWORD = "Str0ng!Passw0rd";
+
+    // Каждый запрос со своего адреса, чтобы не упереться в ограничение частоты по IP
+    private static final AtomicInteger address = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void refreshRotatesTokenAndOldTokenCannotBeReused() throws Exception {
+        String first = loginAndGetRefreshToken();
+
+        String second = refreshToken(refresh(first).andExpect(status().isOk()));
+        assertNotEquals(first, second);
+        String third = refreshToken(refresh(second).andExpect(status().isOk()));
+
+        refresh(second).andExpect(status().isUnauthorized());
+        // Повтор обменянного токена отозвал всё семейство, включая последний выданный
+        refresh(third).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logoutRevokesFamily() throws Exception {
+        String first = loginAndGetRefreshToken();
+        String second = refreshToken(refresh(first).andExpect(status().isOk()));
+
+        send("/auth/logout", second).andExpect(status().isNoContent());
+
+        refresh(second).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logoutWithUnknownTokenIsRejected() throws Exception {
+        send("/auth/logout", "not-a-token").andExpect(status().isUnauthorized());
+    }
+
+    private String loginAndGetRefreshToken() throws Exception {
+        String username = TestData.unique("refresh");
+        new TestData(jdbcTemplate).user(username, passwordEncoder.encode(PASSWORD), "USER");
+        ResultActions login = mockMvc.perform(post("/auth/login")
+                        .with(request -> {
+                            request.setRemoteAddr(nextAddress());
+                            return request;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk());
+        return refreshToken(login);
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return send("/auth/refresh", refreshToken);
+    }
+
+    private ResultActions send(String path, String refreshToken) throws Exception {
+        return mockMvc.perform(post(path)
+                .with(request -> {
+                    request.setRemoteAddr(nextAddress());
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"));
+    }
+
+    private String refreshToken(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString())
+                .get("refreshToken").asText();
+    }
+
+    private static String nextAddress() {
+        return "10.15.4." + address.incrementAndGet();
+    }
+}
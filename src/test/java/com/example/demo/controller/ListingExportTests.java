@@ -0,0 +1,174 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.ListingExportRepository;
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Выгрузка объявлений: потоковый ответ с фильтрами, экранирование формул в CSV,
+ * сжатие по Accept-Encoding с учётом q и ограничение времени, на которое выгрузка занимает транзакцию.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ListingExportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void csvExportStreamsFilteredListings() throws Exception {
+        TestData data = new TestData(jdbcTemplate);
+        long sellerId = data.user(TestData.unique("export_seller"));
+        long categoryId = data.category(TestData.unique("Выгрузка"));
+        data.listing("Велосипед, горный", sellerId, categoryId);
+        data.listing("Самокат", sellerId, categoryId);
+
+        MvcResult result = export("csv", sellerId, null);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,title,"));
+        assertTrue(lines[1].contains("\"Велосипед, горный\""), lines[1]);
+        assertTrue(lines[2].contains(",Самокат,"), lines[2]);
+    }
+
+    @Test
+    void csvValuesThatLookLikeFormulasAreEscaped() throws Exception {
+        TestData data = new TestData(jdbcTemplate);
+        long sellerId = data.user(TestData.unique("export_formula"));
+        long categoryId = data.category(TestData.unique("Выгрузка"));
+        data.listing("=1+2", sellerId, categoryId);
+        data.listing("@SUM(A1:A9)", sellerId, categoryId);
+        data.listing("+7 999 000-00-00", sellerId, categoryId);
+        data.listing("-50%, срочно", sellerId, categoryId);
+        data.listing("Обычное - без формул", sellerId, categoryId);
+
+        MvcResult result = export("csv", sellerId, null);
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        String body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(body.contains(",'=1+2,"), body);
+        assertTrue(body.contains(",'@SUM(A1:A9),"), body);
+        assertTrue(body.contains(",'+7 999 000-00-00,"), body);
+        assertTrue(body.contains(",\"'-50%, срочно\","), body);
+        assertTrue(body.contains(",Обычное - без формул,"), body);
+    }
+
+    @Test
+    void gzipFollowsAcceptEncodingQuality() throws Exception {
+        TestData data = new TestData(jdbcTemplate);
+        long sellerId = data.user(TestData.unique("export_gzip"));
+        data.listing("Сжатое объявление", sellerId, data.category(TestData.unique("Выгрузка")));
+
+        MvcResult compressed = export("ndjson", sellerId, "deflate, GZIP;q=0.5");
+        mockMvc.perform(asyncDispatch(compressed))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        assertTrue(gunzip(compressed.getResponse().getContentAsByteArray()).contains("\"title\":\"Сжатое объявление\""));
+
+        MvcResult refused = export("ndjson", sellerId, "gzip;q=0, *");
+        mockMvc.perform(asyncDispatch(refused))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(refused.getResponse().getContentAsString(StandardCharsets.UTF_8).contains("Сжатое объявление"));
+    }
+
+    @Test
+    void unsupportedFormatIsRejected() throws Exception {
+        String adminName = TestData.unique("export_admin");
+        long adminId = new TestData(jdbcTemplate).user(adminName, "unused", "ADMIN");
+        mockMvc.perform(get("/api/admin/listings/export").param("format", "xml")
+                        .header("Authorization", "Bearer " + adminToken(adminId, adminName)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportStopsWhenTimeoutExpires() {
+        TestData data = new TestData(jdbcTemplate);
+        long sellerId = data.user(TestData.unique("export_slow"));
+        long categoryId = data.category(TestData.unique("Выгрузка"));
+        data.listing("Первое", sellerId, categoryId);
+        data.listing("Второе", sellerId, categoryId);
+        ListingExportRepository repository = new ListingExportRepository(dataSource, transactionManager, 1, 1);
+
+        // Медленный клиент: каждая строка пишется дольше всего срока выгрузки
+        List<String> titles = new ArrayList<>();
+        assertThrows(QueryTimeoutException.class, () -> repository.streamListings(null, sellerId, null, rs -> {
+            titles.add(rs.getString("title"));
+            try {
+                Thread.sleep(1100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertEquals(List.of("Первое"), titles);
+    }
+
+    private MvcResult export(String format, long userId, String acceptEncoding) throws Exception {
+        String adminName = TestData.unique("export_admin");
+        long adminId = new TestData(jdbcTemplate).user(adminName, "unused", "ADMIN");
+        return mockMvc.perform(get("/api/admin/listings/export")
+                        .param("format", format)
+                        .param("userId", String.valueOf(userId))
+                        .header("Authorization", "Bearer " + adminToken(adminId, adminName))
+                        .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding != null ? acceptEncoding : "identity"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private String adminToken(long adminId, String adminName) {
+        return jwtTokenProvider.generateAccessToken(adminId, adminName, adminName + "@example.com", "ADMIN");
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
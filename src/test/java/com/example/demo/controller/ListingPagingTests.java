@@ -0,0 +1,75 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.ListingSummary;
+import com.example.demo.service.ListingService;
+import com.example.demo.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Лента активных объявлений по курсору: объявления с одинаковым created_at не теряются
+ * и не повторяются на границе страниц, испорченный курсор — 400.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ListingPagingTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ListingService listingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void pagingIsStableForEqualCreatedAt() {
+        TestData data = new TestData(jdbcTemplate);
+        long sellerId = data.user(TestData.unique("pager"));
+        long categoryId = data.category(TestData.unique("Лента"));
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(0, data.listing("Одновременное " + i, sellerId, categoryId));
+        }
+        // Одна метка времени у всех и в будущем: они первые в ленте, порядок решает только id
+        jdbcTemplate.update("UPDATE listings SET created_at = TIMESTAMP '2999-01-01 00:00:00' WHERE user_id = ?",
+                sellerId);
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        for (int page = 0; page < 3; page++) {
+            CursorPage<ListingSummary> result = listingService.getActiveListingsPage(cursor, 2);
+            result.getItems().forEach(item -> seen.add(item.getId()));
+            cursor = result.getNextCursor();
+        }
+
+        assertEquals(expected, seen.subList(0, 5));
+        Set<Long> unique = new HashSet<>(seen);
+        assertEquals(seen.size(), unique.size(), "no listing repeats across pages: " + seen);
+        assertTrue(seen.size() == 6 || cursor == null, "page size must be respected: " + seen);
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/listings?cursor={c}", "not base64!")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/listings?cursor={c}", "bm90LWEtY3Vyc29y")).andExpect(status().isBadRequest());
+    }
+}
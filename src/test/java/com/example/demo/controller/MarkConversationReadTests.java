@@ -0,0 +1,145 @@
+package com.example.demo.controller;
+
+import com.example.demo.entity.Message;
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.service.InboxService;
+import com.example.demo.service.MessageService;
+import com.example.demo.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /api/messages/conversations/{id}/read: один UPDATE затрагивает только входящие сообщения
+ * этой переписки (до upToMessageId включительно), а unread_count переписки и счётчик пользователя
+ * уменьшаются ровно на число изменённых строк — повторная отметка их не трогает.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class MarkConversationReadTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private InboxService inboxService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Test
+    void onlyReceiversMessagesUpToIdAreMarkedAndCountersFollow() throws Exception {
+        TestData data = new TestData(jdbcTemplate);
+        String ownerName = TestData.unique("read_owner");
+        long ownerId = data.user(ownerName);
+        long buyerId = data.user(TestData.unique("read_buyer"));
+        long otherBuyerId = data.user(TestData.unique("read_other"));
+        long categoryId = data.category(TestData.unique("Прочтение"));
+        long listingId = data.listing("Диван", ownerId, categoryId);
+        long otherListingId = data.listing("Кресло", ownerId, categoryId);
+
+        long first = send(listingId, buyerId, ownerId);
+        long second = send(listingId, buyerId, ownerId);
+        long third = send(listingId, buyerId, ownerId);
+        long reply = send(listingId, ownerId, buyerId);
+        long fromOtherBuyer = send(listingId, otherBuyerId, ownerId);
+        long aboutOtherListing = send(otherListingId, buyerId, ownerId);
+        assertEquals(5, inboxService.getUnreadCount(ownerId));
+        long conversationId = conversationId(ownerId, listingId, buyerId);
+
+        markRead(ownerId, ownerName, conversationId, second)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2))
+                .andExpect(jsonPath("$.unreadCount").value(3));
+
+        assertEquals(List.of(first, second), readIds(first, second, third, reply, fromOtherBuyer, aboutOtherListing));
+        assertEquals(1, conversationUnread(ownerId, listingId, buyerId));
+        assertEquals(1, conversationUnread(ownerId, listingId, otherBuyerId));
+        assertEquals(1, conversationUnread(ownerId, otherListingId, buyerId));
+        // Ответ владельца — входящее покупателя, его счётчики не меняются
+        assertEquals(1, inboxService.getUnreadCount(buyerId));
+
+        // Повтор: строк не изменилось — и счётчики на месте
+        markRead(ownerId, ownerName, conversationId, second)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(0))
+                .andExpect(jsonPath("$.unreadCount").value(3));
+        assertEquals(1, conversationUnread(ownerId, listingId, buyerId));
+
+        // Без upToMessageId — все оставшиеся входящие этой переписки
+        markRead(ownerId, ownerName, conversationId, null)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.unreadCount").value(2));
+        assertEquals(List.of(first, second, third), readIds(first, second, third, reply, fromOtherBuyer, aboutOtherListing));
+        assertEquals(0, conversationUnread(ownerId, listingId, buyerId));
+        assertEquals(2, inboxService.getUnreadCount(ownerId));
+    }
+
+    @Test
+    void foreignConversationIsForbidden() throws Exception {
+        TestData data = new TestData(jdbcTemplate);
+        long ownerId = data.user(TestData.unique("read_owner"));
+        String buyerName = TestData.unique("read_buyer");
+        long buyerId = data.user(buyerName);
+        long listingId = data.listing("Стол", ownerId, data.category(TestData.unique("Прочтение")));
+        long message = send(listingId, buyerId, ownerId);
+
+        markRead(buyerId, buyerName, conversationId(ownerId, listingId, buyerId), null)
+                .andExpect(status().isForbidden());
+
+        assertEquals(List.of(), readIds(message));
+        assertEquals(1, inboxService.getUnreadCount(ownerId));
+    }
+
+    private long send(long listingId, long senderId, long receiverId) {
+        Message message = new Message();
+        message.setText("Здравствуйте");
+        return messageService.createMessage(message, listingId, senderId, receiverId).getId();
+    }
+
+    private ResultActions markRead(long userId, String username, long conversationId, Long upToMessageId)
+            throws Exception {
+        String token = jwtTokenProvider.generateAccessToken(userId, username, username + "@example.com", "USER");
+        String uri = "/api/messages/conversations/" + conversationId + "/read"
+                + (upToMessageId != null ? "?upToMessageId=" + upToMessageId : "");
+        return mockMvc.perform(post(uri).header("Authorization", "Bearer " + token));
+    }
+
+    private long conversationId(long ownerId, long listingId, long counterpartId) {
+        return jdbcTemplate.queryForObject("SELECT id FROM conversations "
+                + "WHERE owner_id = ? AND listing_id = ? AND counterpart_id = ?", Long.class,
+                ownerId, listingId, counterpartId);
+    }
+
+    private int conversationUnread(long ownerId, long listingId, long counterpartId) {
+        return jdbcTemplate.queryForObject("SELECT unread_count FROM conversations "
+                + "WHERE owner_id = ? AND listing_id = ? AND counterpart_id = ?", Integer.class,
+                ownerId, listingId, counterpartId);
+    }
+
+    private List<Long> readIds(Long... ids) {
+        return List.of(ids).stream()
+                .filter(id -> jdbcTemplate.queryForObject("SELECT is_read FROM messages WHERE id = ?", Boolean.class, id))
+                .toList();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.controller;
+
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.example.demo.support.QueryBudgetAssertions.assertMaxQueries;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Число SQL-выражений на запрос списка сообщений не зависит от числа сообщений.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class MessageQueryBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void receivedMessagesStayWithinQueryBudget() throws Throwable {
+        TestData data = new TestData(jdbcTemplate);
+        String receiver = TestData.unique("budget_receiver");
+        long receiverId = data.user(receiver);
+        long categoryId = data.category(TestData.unique("Бюджет запросов"));
+        // Разные отправители и объявления: N+1 по sender/listing дал бы выражение на каждое сообщение
+        for (int i = 0; i < 5; i++) {
+            long senderId = data.user(TestData.unique("budget_sender"));
+            long listingId = data.listing("Бюджет " + i, receiverId, categoryId);
+            data.message("Сообщение " + i, listingId, senderId, receiverId);
+        }
+        String token = jwtTokenProvider.generateAccessToken(receiverId, receiver, receiver + "@example.com", "USER");
+
+        assertMaxQueries(3, () -> mockMvc.perform(get("/api/messages/received")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk()));
+    }
+}
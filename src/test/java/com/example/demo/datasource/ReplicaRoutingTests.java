@@ -0,0 +1,99 @@
+package com.example.demo.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Маршрутизация на реплику с двумя разными базами H2: реплика — копия основной базы,
+ * поэтому запись, ошибочно ушедшая на реплику, видна как строка не в той базе.
+ * Без spring.jpa.open-in-view=false вход закреплял бы соединение реплики за всем запросом.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTests.PRIMARY_URL,
+        // Реплика появляется только в copyPrimaryToReplica: до этого она недоступна и старт читает из основной
+        "datasource.replicas.urls=" + ReplicaRoutingTests.REPLICA_URL + ";IFEXISTS=TRUE",
+        "datasource.replicas.lag-query=SELECT 0",
+        // Плановая проверка только при старте: исправной реплику делает checkReplicas после копирования схемы
+        "datasource.replicas.health-check-interval-ms=3600000",
+        "security.login-rate-limit.enabled=false"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ReplicaRoutingTests {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    private static final String PASSWORD = "Str0ng!Passw0rd";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void copyPrimaryToReplica() {
+        if (primary.queryForObject("SELECT COUNT(*) FROM users WHERE username = 'routing_user'", Integer.class) == 0) {
+            primary.update("INSERT INTO users (username, email, password, role, enabled) VALUES (?, ?, ?, 'USER', TRUE)",
+                    "routing_user", "routing_user@example.com", passwordEncoder.encode(PASSWORD));
+        }
+        replica.execute("DROP ALL OBJECTS");
+        List<String> script = primary.queryForList("SCRIPT NODATA", String.class);
+        script.forEach(replica::execute);
+        primary.query("SELECT id, username, email, password, role, enabled FROM users", rs -> {
+            replica.update("INSERT INTO users (id, username, email, password, role, enabled) VALUES (?, ?, ?, ?, ?, ?)",
+                    rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5), rs.getBoolean(6));
+        });
+        replicaRoutingDataSource.checkReplicas();
+    }
+
+    @Test
+    void loginReadsFromReplicaAndWritesRefreshSessionToPrimary() throws Exception {
+        double replicaRoutesBefore = routes("replica");
+        int primarySessionsBefore = sessions(primary);
+
+        mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"routing_user\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk());
+
+        assertTrue(routes("replica") > replicaRoutesBefore, "user lookup should be routed to the replica");
+        assertEquals(primarySessionsBefore + 1, sessions(primary), "refresh session must be stored in the primary");
+        assertEquals(0, sessions(replica), "nothing may be written to the replica");
+    }
+
+    private double routes(String route) {
+        return meterRegistry.get("datasource.routing").tag("route", route).counter().count();
+    }
+
+    private static int sessions(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM refresh_sessions", Integer.class);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Курсор keyset-пагинации: кодирование без потерь (включая наносекунды), отказ
+ * с IllegalArgumentException (400) на любой испорченный курсор и на позицию без created_at.
+ */
+class KeysetCursorTests {
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123_456_789);
+
+        String encoded = new KeysetCursor(createdAt, 42L).encode();
+        KeysetCursor decoded = KeysetCursor.decode(encoded);
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals(42L, decoded.getId());
+        // Годится для строки запроса как есть
+        assertFalse(encoded.contains("+") || encoded.contains("/") || encoded.contains("="), encoded);
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        for (String cursor : new String[] {
+                "",
+                "not base64!",
+                encode("2024-01-01T00:00"),
+                encode("|42"),
+                encode("yesterday|42"),
+                encode("2024-01-01T00:00|forty-two"),
+                null}) {
+            assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor), String.valueOf(cursor));
+        }
+    }
+
+    @Test
+    void positionWithoutCreatedAtIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new KeysetCursor(null, 42L));
+        assertThrows(IllegalArgumentException.class, () -> new KeysetCursor(LocalDateTime.now(), null));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.pdf;
+
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.support.TestData;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class PdfReportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void reportsPdfContainsStreamedRowsInCyrillic() throws Exception {
+        TestData data = new TestData(jdbcTemplate);
+        String adminName = TestData.unique("pdf_admin");
+        long adminId = data.user(adminName, "unused", "ADMIN");
+        long sellerId = data.user(TestData.unique("pdf_seller"));
+        long categoryId = data.category(TestData.unique("PDF категория"));
+        String title = TestData.unique("Велосипед");
+        long listingId = data.listing(title, sellerId, categoryId);
+        String reporter = TestData.unique("pdf_rep");
+        data.report(listingId, data.user(reporter), "Мошенничество");
+        String token = jwtTokenProvider.generateAccessToken(adminId, adminName, adminName + "@example.com", "ADMIN");
+
+        MvcResult submitted = mockMvc.perform(post("/api/admin/pdf/reports").param("status", "pending")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn();
+        String jobId = objectMapper.readTree(submitted.getResponse().getContentAsString()).get("id").asText();
+
+        JsonNode job = awaitFinished(jobId, token);
+        assertEquals("DONE", job.get("status").asText(), job.toString());
+        assertTrue(job.get("rows").asLong() >= 1);
+
+        byte[] pdf = mockMvc.perform(get("/api/admin/pdf/jobs/" + jobId + "/file")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        PdfReader reader = new PdfReader(pdf);
+        StringBuilder text = new StringBuilder();
+        for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+            text.append(PdfTextExtractor.getTextFromPage(reader, page));
+        }
+        reader.close();
+        // Кириллица читается только со встроенным Unicode-шрифтом
+        assertTrue(text.indexOf("Жалобы со статусом PENDING") >= 0, text.toString());
+        assertTrue(text.indexOf(title) >= 0, text.toString());
+        assertTrue(text.indexOf(reporter) >= 0, text.toString());
+        assertTrue(text.indexOf("Мошенничество") >= 0, text.toString());
+    }
+
+    private JsonNode awaitFinished(String jobId, String token) throws Exception {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (true) {
+            String body = mockMvc.perform(get("/api/admin/pdf/jobs/" + jobId).header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode job = objectMapper.readTree(body);
+            String jobStatus = job.get("status").asText();
+            if (jobStatus.equals("DONE") || jobStatus.equals("FAILED") || System.currentTimeMillis() > deadline) {
+                return job;
+            }
+            Thread.sleep(100);
+        }
+    }
+}
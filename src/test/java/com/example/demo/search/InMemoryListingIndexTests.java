@@ -0,0 +1,144 @@
+package com.example.demo.search;
+
+import com.example.demo.entity.Category;
+import com.example.demo.entity.Listing;
+import com.example.demo.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Индекс объявлений без приложения Spring Boot: события ListingChangedEvent применяются только
+ * после коммита (создание, изменение, снятие с публикации, удаление), откат их отбрасывает.
+ * Контекст из трёх бинов нужен только ради обработки @TransactionalEventListener.
+ */
+class InMemoryListingIndexTests {
+
+    private static final long CATEGORY = 1L;
+    private static final long OTHER_CATEGORY = 2L;
+
+    private AnnotationConfigApplicationContext context;
+    private InMemoryListingIndex index;
+    private ApplicationEventPublisher publisher;
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(IndexConfig.class);
+        index = context.getBean(InMemoryListingIndex.class);
+        publisher = context;
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void createIsAppliedAfterCommit() {
+        transaction.executeWithoutResult(status -> {
+            publisher.publishEvent(ListingChangedEvent.saved(listing(1L, "Велосипед горный", CATEGORY, true)));
+            assertEquals(List.of(), ids(CATEGORY, "велосипед"), "not visible before commit");
+        });
+
+        assertEquals(List.of(1L), ids(CATEGORY, "велосипед горный"));
+        assertEquals(List.of(), ids(OTHER_CATEGORY, "велосипед"));
+    }
+
+    @Test
+    void updateReplacesTokensAndCategory() {
+        commit(ListingChangedEvent.saved(listing(1L, "Велосипед горный", CATEGORY, true)));
+
+        commit(ListingChangedEvent.saved(listing(1L, "Самокат электрический", OTHER_CATEGORY, true)));
+
+        assertEquals(List.of(), ids(CATEGORY, "велосипед"));
+        assertEquals(List.of(), ids(OTHER_CATEGORY, "велосипед"));
+        assertEquals(List.of(1L), ids(OTHER_CATEGORY, "самокат"));
+        assertEquals(1, index.getDocumentCount());
+    }
+
+    @Test
+    void deactivateAndDeleteRemoveListing() {
+        commit(ListingChangedEvent.saved(listing(1L, "Велосипед горный", CATEGORY, true)));
+        commit(ListingChangedEvent.saved(listing(2L, "Велосипед детский", CATEGORY, true)));
+        assertEquals(List.of(2L, 1L), ids(CATEGORY, "велосипед"));
+
+        commit(ListingChangedEvent.saved(listing(1L, "Велосипед горный", CATEGORY, false)));
+        assertEquals(List.of(2L), ids(CATEGORY, "велосипед"));
+
+        commit(ListingChangedEvent.removed(2L));
+        assertEquals(List.of(), ids(CATEGORY, "велосипед"));
+        assertEquals(0, index.getDocumentCount());
+        assertEquals(0, index.getTokenCount());
+    }
+
+    @Test
+    void rolledBackChangesAreNotApplied() {
+        commit(ListingChangedEvent.saved(listing(1L, "Велосипед горный", CATEGORY, true)));
+
+        transaction.executeWithoutResult(status -> {
+            publisher.publishEvent(ListingChangedEvent.saved(listing(2L, "Велосипед детский", CATEGORY, true)));
+            publisher.publishEvent(ListingChangedEvent.removed(1L));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(1L), ids(CATEGORY, "велосипед"));
+        assertEquals(1, index.getDocumentCount());
+    }
+
+    private void commit(ListingChangedEvent event) {
+        transaction.executeWithoutResult(status -> publisher.publishEvent(event));
+    }
+
+    private List<Long> ids(long categoryId, String query) {
+        return index.searchInCategory(categoryId, query, 10).stream().map(ListingSearchHit::getId).toList();
+    }
+
+    private static Listing listing(long id, String title, long categoryId, boolean active) {
+        Category category = new Category();
+        category.setId(categoryId);
+        Listing listing = new Listing();
+        listing.setId(id);
+        listing.setTitle(title);
+        listing.setDescription("Описание");
+        listing.setPrice(100.0);
+        listing.setCategory(category);
+        listing.setIsActive(active);
+        return listing;
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class IndexConfig {
+
+        @Bean
+        DataSource dataSource() {
+            return new DriverManagerDataSource("jdbc:h2:mem:" + TestData.unique("index") + ";DB_CLOSE_DELAY=-1", "sa", "");
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        InMemoryListingIndex inMemoryListingIndex(DataSource dataSource, PlatformTransactionManager transactionManager) {
+            return new InMemoryListingIndex(dataSource, transactionManager, 100, true);
+        }
+    }
+}
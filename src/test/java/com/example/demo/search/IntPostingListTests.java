@@ -0,0 +1,73 @@
+package com.example.demo.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Отсортированный список id: вставка в любом порядке без дублей, удаление и пересечение слиянием.
+ */
+class IntPostingListTests {
+
+    @Test
+    void addKeepsIdsSortedAndUnique() {
+        IntPostingList list = of(5, 1, 9, 3, 5, 9, 7);
+
+        assertArrayEquals(new int[] {1, 3, 5, 7, 9}, toArray(list));
+    }
+
+    @Test
+    void removeDeletesOnlyPresentIds() {
+        IntPostingList list = of(1, 3, 5, 7, 9);
+
+        list.remove(1);
+        list.remove(5);
+        list.remove(9);
+        list.remove(4);
+
+        assertArrayEquals(new int[] {3, 7}, toArray(list));
+        list.remove(3);
+        list.remove(7);
+        assertTrue(list.isEmpty());
+        // После удалений список снова принимает вставки по порядку
+        list.add(2);
+        assertArrayEquals(new int[] {2}, toArray(list));
+    }
+
+    @Test
+    void intersectMergesSortedLists() {
+        IntPostingList evens = of(IntStream.rangeClosed(1, 100).filter(i -> i % 2 == 0).toArray());
+        IntPostingList threes = of(IntStream.rangeClosed(1, 100).filter(i -> i % 3 == 0).toArray());
+
+        IntPostingList sixes = evens.intersect(threes);
+
+        assertArrayEquals(IntStream.rangeClosed(1, 100).filter(i -> i % 6 == 0).toArray(), toArray(sixes));
+        assertArrayEquals(toArray(sixes), toArray(threes.intersect(evens)));
+        // Исходные списки не меняются
+        assertEquals(50, evens.size());
+        assertEquals(33, threes.size());
+    }
+
+    @Test
+    void intersectWithDisjointOrEmptyListIsEmpty() {
+        assertTrue(of(1, 3, 5).intersect(of(2, 4, 6)).isEmpty());
+        assertTrue(of(1, 3, 5).intersect(new IntPostingList()).isEmpty());
+        assertTrue(new IntPostingList().intersect(of(1)).isEmpty());
+    }
+
+    private static IntPostingList of(int... ids) {
+        IntPostingList list = new IntPostingList();
+        for (int id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+
+    private static int[] toArray(IntPostingList list) {
+        return IntStream.range(0, list.size()).map(list::get).toArray();
+    }
+}
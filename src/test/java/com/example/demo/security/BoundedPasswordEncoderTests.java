@@ -0,0 +1,119 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Отказы перегруженного пула BCrypt: без долгого ожидания потока запроса и с Retry-After
+ * по глубине очереди.
+ */
+class BoundedPasswordEncoderTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        encoder.destroy();
+    }
+
+    @Test
+    void fullQueueIsRejectedAtOnceWithRetryAfterFromBacklog() throws Exception {
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 2, 10_000, meterRegistry);
+        // Среднее время хеширования — 2 с
+        meterRegistry.timer("password.hashing.duration", "operation", "matches").record(2, TimeUnit.SECONDS);
+
+        List<Future<Boolean>> waiting = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            waiting.add(callers.submit(() -> encoder.matches("secret", "hash")));
+        }
+        awaitGauge("password.hashing.active", 1);
+        awaitGauge("password.hashing.queue.size", 2);
+
+        long startedAt = System.nanoTime();
+        PasswordHashingRejectedException rejected = assertThrows(PasswordHashingRejectedException.class,
+                () -> encoder.matches("secret", "hash"));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) < 1000, "full queue must not block the caller");
+        // Одна задача выполняется и две ждут: 3 × 2 с на одном потоке
+        assertEquals(6, rejected.getRetryAfterSeconds());
+        assertEquals(1, rejectedCount("queue_full"));
+
+        release.countDown();
+        for (Future<Boolean> result : waiting) {
+            assertTrue(result.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void waitIsCappedByTimeout() {
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 0, 50, meterRegistry);
+
+        long startedAt = System.nanoTime();
+        PasswordHashingRejectedException rejected = assertThrows(PasswordHashingRejectedException.class,
+                () -> encoder.matches("secret", "hash"));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) < 1000);
+        assertTrue(rejected.getRetryAfterSeconds() >= 1);
+        assertEquals(1, rejectedCount("timeout"));
+    }
+
+    private void awaitGauge(String name, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get(name).gauge().value() != expected) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError(name + " did not reach " + expected);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private double rejectedCount(String reason) {
+        return meterRegistry.get("password.hashing.rejected").tag("reason", reason).counter().count();
+    }
+
+    /** Хеширование, которое не завершается, пока тест его не отпустит. */
+    private final class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            await();
+            return "hash";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await();
+            return true;
+        }
+
+        private void await() {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Hashing interrupted", e);
+            }
+        }
+    }
+}
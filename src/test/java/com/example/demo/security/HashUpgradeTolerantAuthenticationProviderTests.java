@@ -0,0 +1,98 @@
+package com.example.demo.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Вход через форму при перегруженном пуле BCrypt: пароль сверен, а перехеширование получает отказ.
+ */
+class HashUpgradeTolerantAuthenticationProviderTests {
+
+    private static final String PASSWORD = "Str0ng!Passw0rd";
+    private static final String OLD_HASH = "$2a$04$legacy";
+
+    private final List<String> upgradedHashes = new ArrayList<>();
+
+    @Test
+    void correctPasswordSucceedsWhenHashUpgradeIsRejected() {
+        HashUpgradeTolerantAuthenticationProvider provider = provider(new StubEncoder(true));
+
+        Authentication result = provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("alice", PASSWORD));
+
+        assertTrue(result.isAuthenticated());
+        assertEquals("alice", ((UserDetails) result.getPrincipal()).getUsername());
+        assertTrue(upgradedHashes.isEmpty(), "rejected upgrade must not store a hash");
+    }
+
+    @Test
+    void hashIsUpgradedWhenPoolAcceptsTheTask() {
+        HashUpgradeTolerantAuthenticationProvider provider = provider(new StubEncoder(false));
+
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("alice", PASSWORD));
+
+        assertEquals(List.of("{bcrypt}upgraded"), upgradedHashes);
+    }
+
+    @Test
+    void wrongPasswordIsStillRejected() {
+        HashUpgradeTolerantAuthenticationProvider provider = provider(new StubEncoder(true));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("alice", "wrong")));
+    }
+
+    private HashUpgradeTolerantAuthenticationProvider provider(PasswordEncoder encoder) {
+        HashUpgradeTolerantAuthenticationProvider provider = new HashUpgradeTolerantAuthenticationProvider();
+        provider.setUserDetailsService(username -> User.withUsername(username).password(OLD_HASH).roles("USER").build());
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService((user, newPassword) -> {
+            upgradedHashes.add(newPassword);
+            return User.withUserDetails(user).password(newPassword).build();
+        });
+        return provider;
+    }
+
+    /**
+     * Верный пароль — Str0ng!Passw0rd; старый хеш всегда требует перехеширования. Отказ получает
+     * только перехеширование верного пароля: фиктивный хеш защиты от перебора провайдер строит сам.
+     */
+    private static final class StubEncoder implements PasswordEncoder {
+
+        private final boolean rejectEncode;
+
+        private StubEncoder(boolean rejectEncode) {
+            this.rejectEncode = rejectEncode;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (rejectEncode && PASSWORD.contentEquals(rawPassword)) {
+                throw new PasswordHashingRejectedException("Сервис перегружен, повторите попытку позже");
+            }
+            return PASSWORD.contentEquals(rawPassword) ? "{bcrypt}upgraded" : "{bcrypt}dummy";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return PASSWORD.contentEquals(rawPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return OLD_HASH.equals(encodedPassword);
+        }
+    }
+}
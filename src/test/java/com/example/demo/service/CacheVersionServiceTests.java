@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.CacheVersionRepository;
+import com.example.demo.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Версии регионов кэша при параллельной первой записи: строку cache_versions создаёт одна
+ * из транзакций, ни одно увеличение версии не теряется. Загрузка, которую обогнал сброс региона
+ * или которая началась вскоре после него, в кэш не кладётся.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CacheVersionServiceTests {
+
+    @Autowired
+    private CacheVersionService cacheVersionService;
+
+    @Autowired
+    private CacheVersionRepository cacheVersionRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentFirstInvalidationsAreAllCounted() throws Exception {
+        String region = TestData.unique("region");
+        int writers = 4;
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < writers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    cacheVersionService.invalidate(region);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals((long) writers, jdbcTemplate.queryForObject(
+                "SELECT version FROM cache_versions WHERE region = ?", Long.class, region));
+    }
+
+    @Test
+    void loadOvertakenByInvalidationIsNotCached() {
+        String region = TestData.unique("region");
+        cacheVersionService.registerRegion(region, CategoryService.CACHE_BY_NAME);
+        String key = TestData.unique("key");
+
+        // Запись коммитится, пока загрузка ещё идёт: прочитанное могло быть до коммита
+        String loaded = cacheVersionService.getOrLoad(region, CategoryService.CACHE_BY_NAME, key, () -> {
+            cacheVersionService.invalidate(region);
+            return "stale";
+        });
+
+        assertEquals("stale", loaded);
+        assertNull(cache().get(key));
+    }
+
+    @Test
+    void loadSoonAfterInvalidationIsNotCached() {
+        // Отдельный экземпляр: своё окно и свой учёт сбросов, общий менеджер кэшей
+        CacheVersionService service = new CacheVersionService(cacheVersionRepository, cacheManager, 60_000);
+        String region = TestData.unique("region");
+        service.registerRegion(region, CategoryService.CACHE_BY_NAME);
+        String before = TestData.unique("key");
+        String after = TestData.unique("key");
+
+        assertEquals("fresh", service.getOrLoad(region, CategoryService.CACHE_BY_NAME, before, () -> "fresh"));
+        assertEquals("fresh", cache().get(before, String.class));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> service.invalidate(region));
+        // Отстающая реплика ещё может вернуть данные до записи
+        assertEquals("lagging", service.getOrLoad(region, CategoryService.CACHE_BY_NAME, after, () -> "lagging"));
+        assertNull(cache().get(after));
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CategoryService.CACHE_BY_NAME);
+    }
+}
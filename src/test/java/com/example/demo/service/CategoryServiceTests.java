@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Category;
+import com.example.demo.entity.Listing;
+import com.example.demo.entity.Message;
+import com.example.demo.entity.Report;
+import com.example.demo.search.InMemoryListingIndex;
+import com.example.demo.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Удаление категории вместе с объявлениями: диалоги, счётчики непрочитанного и жалоб,
+ * индекс поиска очищаются так же, как при удалении одного объявления.
+ * Чтения через кэш после изменения категории видят новые данные.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CategoryServiceTests {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ListingService listingService;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private InMemoryListingIndex listingIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deletingCategoryCleansUpItsListings() {
+        TestData data = new TestData(jdbcTemplate);
+        long sellerId = data.user(TestData.unique("cat_seller"));
+        long buyerId = data.user(TestData.unique("cat_buyer"));
+        long categoryId = categoryService.createCategory(new Category(TestData.unique("Удаляемая"), "Тест")).getId();
+
+        Listing listing = new Listing();
+        listing.setTitle("Холодильник");
+        listing.setDescription("Описание");
+        listing.setPrice(5000.0);
+        long listingId = listingService.createListing(listing, sellerId, categoryId).getId();
+
+        Message message = new Message();
+        message.setText("Ещё продаётся?");
+        messageService.createMessage(message, listingId, buyerId, sellerId);
+        Report report = new Report();
+        report.setReason("Спам");
+        reportService.createReport(report, listingId, buyerId);
+        assertEquals(1, listingIndex.searchInCategory(categoryId, "Холодильник", 10).size());
+        assertEquals(1L, messageService.getUnreadCount(sellerId));
+
+        categoryService.deleteCategory(categoryId);
+
+        assertEquals(0, count("SELECT COUNT(*) FROM listings WHERE id = ?", listingId));
+        assertEquals(0, count("SELECT COUNT(*) FROM conversations WHERE listing_id = ?", listingId));
+        assertEquals(0, count("SELECT COUNT(*) FROM listing_report_stats WHERE listing_id = ?", listingId));
+        assertEquals(0L, messageService.getUnreadCount(sellerId));
+        assertTrue(listingIndex.searchInCategory(categoryId, "Холодильник", 10).isEmpty());
+    }
+
+    @Test
+    void updatedCategoryIsNotServedFromCache() {
+        String name = TestData.unique("Старое имя");
+        long categoryId = categoryService.createCategory(new Category(name, "Тест")).getId();
+        assertEquals(name, categoryService.getCategoryById(categoryId).getName());
+        assertEquals(categoryId, categoryService.getCategoryByName(name).getId());
+
+        String renamed = TestData.unique("Новое имя");
+        categoryService.updateCategory(categoryId, new Category(renamed, "Тест"));
+
+        assertEquals(renamed, categoryService.getCategoryById(categoryId).getName());
+        assertTrue(categoryService.getAllCategories().stream().anyMatch(category -> renamed.equals(category.getName())));
+        assertThrows(IllegalArgumentException.class, () -> categoryService.getCategoryByName(name));
+    }
+
+    private int count(String sql, long id) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, id);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ConversationSummary;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.entity.Message;
+import com.example.demo.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Счётчики входящих при параллельных первых сообщениях: строки conversations и user_unread_counters
+ * создаются одной из транзакций, остальные дописывают в них, и ни одно сообщение не теряется.
+ * Страницы входящих по курсору: непрочитанные переписки первыми, без пропусков и повторов.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InboxServiceTests {
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private InboxService inboxService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentFirstMessagesAreAllCounted() throws Exception {
+        TestData data = new TestData(jdbcTemplate);
+        long receiverId = data.user(TestData.unique("inbox_owner"));
+        long listingId = data.listing(TestData.unique("Переписка"), receiverId, data.category(TestData.unique("Входящие")));
+        List<Long> senders = List.of(data.user(TestData.unique("inbox_a")), data.user(TestData.unique("inbox_b")));
+        int messagesPerSender = 2;
+
+        // Обоим отправителям — по два сообщения одновременно: гонка и за переписку, и за счётчик получателя
+        ExecutorService executor = Executors.newFixedThreadPool(senders.size() * messagesPerSender);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Message>> results = new ArrayList<>();
+        try {
+            for (Long senderId : senders) {
+                for (int i = 0; i < messagesPerSender; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        Message message = new Message();
+                        message.setText("Здравствуйте");
+                        return messageService.createMessage(message, listingId, senderId, receiverId);
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<Message> result : results) {
+                assertNotNull(result.get().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(senders.size() * messagesPerSender, inboxService.getUnreadCount(receiverId));
+        for (Long senderId : senders) {
+            Integer unread = jdbcTemplate.queryForObject("SELECT unread_count FROM conversations "
+                    + "WHERE owner_id = ? AND listing_id = ? AND counterpart_id = ?", Integer.class,
+                    receiverId, listingId, senderId);
+            assertEquals(messagesPerSender, unread);
+        }
+    }
+
+    @Test
+    void inboxPagesListUnreadConversationsFirst() {
+        TestData data = new TestData(jdbcTemplate);
+        long ownerId = data.user(TestData.unique("inbox_pages"));
+        long listingId = data.listing(TestData.unique("Страницы"), ownerId, data.category(TestData.unique("Входящие")));
+        List<Long> conversationIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Message message = new Message();
+            message.setText("Сообщение " + i);
+            messageService.createMessage(message, listingId, data.user(TestData.unique("inbox_peer")), ownerId);
+            conversationIds.add(jdbcTemplate.queryForObject("SELECT id FROM conversations WHERE owner_id = ? "
+                    + "AND last_message_id = ?", Long.class, ownerId, message.getId()));
+        }
+        // Прочитаны самая новая и самая старая переписки: непрочитанные всё равно идут первыми
+        inboxService.markConversationRead(conversationIds.get(0), ownerId, null);
+        inboxService.markConversationRead(conversationIds.get(4), ownerId, null);
+        List<Long> expected = jdbcTemplate.queryForList("SELECT id FROM conversations WHERE owner_id = ? "
+                + "ORDER BY CASE WHEN unread_count > 0 THEN 0 ELSE 1 END, last_message_at DESC, id DESC",
+                Long.class, ownerId);
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<ConversationSummary> page = inboxService.getInbox(ownerId, cursor, 2);
+            assertTrue(page.getItems().size() <= 2);
+            page.getItems().forEach(conversation -> paged.add(conversation.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(expected, paged);
+        assertEquals(List.of(0, 0), List.of(unreadCount(paged.get(3)), unreadCount(paged.get(4))));
+        assertThrows(IllegalArgumentException.class, () -> inboxService.getInbox(ownerId, "не курсор", 2));
+    }
+
+    private int unreadCount(long conversationId) {
+        return jdbcTemplate.queryForObject("SELECT unread_count FROM conversations WHERE id = ?",
+                Integer.class, conversationId);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.service;
+
+import com.example.demo.config.SequenceInitializer;
+import com.example.demo.dto.ListingImportResult;
+import com.example.demo.entity.Category;
+import com.example.demo.entity.Listing;
+import com.example.demo.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Массовый импорт объявлений: отклонённые строки не мешают остальным, идентификаторы берутся
+ * из listings_seq, а при старте последовательность переводится за строки, вставленные в обход неё;
+ * если это не удалось, приложение не запускается.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ListingImportServiceTests {
+
+    @Autowired
+    private ListingImportService listingImportService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private SequenceInitializer sequenceInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void validRowsAreImportedAndInvalidOnesReported() {
+        long userId = new TestData(jdbcTemplate).user(TestData.unique("importer"));
+        long categoryId = newCategory();
+
+        ListingImportResult result = listingImportService.importListings(userId, Arrays.asList(
+                row("Стол", 1500.0, categoryId),
+                row("Стул", -1.0, categoryId),
+                row("Шкаф", 7000.0, categoryId),
+                row("Полка", 300.0, -1L),
+                null,
+                row("Лампа", 900.0, categoryId)));
+
+        assertEquals(3, result.getImported());
+        assertEquals(3, result.getRejected());
+        assertEquals(0, result.getFailed());
+        assertEquals("batch", result.getMethod());
+        assertEquals(List.of(1, 3, 4), result.getRowErrors().stream().map(ListingImportResult.RowError::getIndex).toList());
+
+        List<String> titles = jdbcTemplate.queryForList(
+                "SELECT title FROM listings WHERE user_id = ? AND is_active = TRUE ORDER BY id", String.class, userId);
+        assertEquals(List.of("Стол", "Шкаф", "Лампа"), titles);
+    }
+
+    @Test
+    void sequenceIsMovedPastRowsInsertedAroundIt() {
+        TestData data = new TestData(jdbcTemplate);
+        long userId = data.user(TestData.unique("importer_seq"));
+        long categoryId = newCategory();
+        // Строка с id далеко впереди последовательности, как из data.sql или времён IDENTITY
+        long foreignId = jdbcTemplate.queryForObject("SELECT nextval('listings_seq')", Long.class) + 10_000;
+        jdbcTemplate.update("INSERT INTO listings (id, title, description, price, user_id, category_id, created_at, is_active) "
+                + "VALUES (?, 'Вставлено напрямую', 'Описание', 1.0, ?, ?, CURRENT_TIMESTAMP, TRUE)",
+                foreignId, userId, categoryId);
+
+        sequenceInitializer.alignSequences();
+
+        long next = jdbcTemplate.queryForObject("SELECT nextval('listings_seq')", Long.class);
+        assertTrue(next - Listing.ID_ALLOCATION_SIZE >= foreignId, "next block must start after " + foreignId + ", got " + next);
+
+        // Последовательность уже впереди — повторный запуск её не двигает
+        sequenceInitializer.alignSequences();
+        assertEquals(next + Listing.ID_ALLOCATION_SIZE * 2L,
+                jdbcTemplate.queryForObject("SELECT nextval('listings_seq')", Long.class));
+
+        List<Listing> rows = new ArrayList<>();
+        for (int i = 0; i < Listing.ID_ALLOCATION_SIZE + 10; i++) {
+            rows.add(row("Импорт " + i, 10.0, categoryId));
+        }
+        ListingImportResult result = listingImportService.importListings(userId, rows);
+        assertEquals(rows.size(), result.getImported());
+        assertEquals(rows.size() + 1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT id) FROM listings WHERE user_id = ?", Integer.class, userId));
+    }
+
+    @Test
+    void failedAlignmentStopsStartup() {
+        // Пустая база без таблиц: MAX(id) по listings не выполнить
+        JdbcTemplate empty = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + TestData.unique("noschema") + ";MODE=PostgreSQL", "sa", ""));
+
+        assertThrows(IllegalStateException.class, () -> new SequenceInitializer(empty).afterSingletonsInstantiated());
+    }
+
+    private long newCategory() {
+        Category category = new Category();
+        category.setName(TestData.unique("Импорт"));
+        category.setDescription("Тест");
+        return categoryService.createCategory(category).getId();
+    }
+
+    private static Listing row(String title, double price, long categoryId) {
+        Listing listing = new Listing();
+        listing.setTitle(title);
+        listing.setDescription("Описание");
+        listing.setPrice(price);
+        Category category = new Category();
+        category.setId(categoryId);
+        listing.setCategory(category);
+        return listing;
+    }
+}
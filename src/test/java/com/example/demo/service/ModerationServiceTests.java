@@ -0,0 +1,187 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Report;
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.support.TestData;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Счётчики listing_report_stats, автоскрытие по порогу (moderation.auto-hide.threshold=5 по умолчанию)
+ * и порядок очереди модерации.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ModerationServiceTests {
+
+    private static final int THRESHOLD = 5;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void concurrentFirstReportsAreAllCounted() throws Exception {
+        TestData data = new TestData(jdbcTemplate);
+        long listingId = newListing(data);
+        int reporters = 4;
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < reporters; i++) {
+            userIds.add(data.user(TestData.unique("mod_race")));
+        }
+
+        // Все транзакции стартуют одновременно, строки счётчика ещё нет ни у одной
+        ExecutorService executor = Executors.newFixedThreadPool(reporters);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Report>> results = new ArrayList<>();
+        try {
+            for (Long userId : userIds) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return reportService.createReport(report("Гонка"), listingId, userId);
+                }));
+            }
+            start.countDown();
+            for (Future<Report> result : results) {
+                assertNotNull(result.get().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Object> stats = stats(listingId);
+        assertEquals(reporters, ((Number) stats.get("pending_count")).intValue());
+        assertEquals(reporters, ((Number) stats.get("total_count")).intValue());
+    }
+
+    @Test
+    void listingIsHiddenAtThresholdAndPublishedAgainWhenReportsAreRejected() {
+        TestData data = new TestData(jdbcTemplate);
+        long listingId = newListing(data);
+        List<Report> reports = new ArrayList<>();
+        for (int i = 0; i < THRESHOLD - 1; i++) {
+            reports.add(reportService.createReport(report("Спам"), listingId, data.user(TestData.unique("mod_hide"))));
+        }
+        assertTrue(isActive(listingId), "below the threshold the listing stays published");
+
+        reports.add(reportService.createReport(report("Спам"), listingId, data.user(TestData.unique("mod_hide"))));
+        assertFalse(isActive(listingId));
+        assertNotNull(stats(listingId).get("auto_hidden_at"));
+
+        reportService.updateReportStatus(reports.get(0).getId(), "REJECTED");
+        assertTrue(isActive(listingId), "rejected reports bring the listing back below the threshold");
+        assertNull(stats(listingId).get("auto_hidden_at"));
+        assertEquals(THRESHOLD - 1, ((Number) stats(listingId).get("pending_count")).intValue());
+    }
+
+    @Test
+    void approvedReportKeepsListingHidden() {
+        TestData data = new TestData(jdbcTemplate);
+        long listingId = newListing(data);
+        List<Report> reports = new ArrayList<>();
+        for (int i = 0; i < THRESHOLD; i++) {
+            reports.add(reportService.createReport(report("Запрещённый товар"), listingId,
+                    data.user(TestData.unique("mod_appr"))));
+        }
+        assertFalse(isActive(listingId));
+
+        reportService.updateReportStatus(reports.get(0).getId(), "APPROVED");
+        reportService.updateReportStatus(reports.get(1).getId(), "REJECTED");
+
+        assertFalse(isActive(listingId), "an approved report makes the hide final");
+        assertNull(stats(listingId).get("auto_hidden_at"));
+        assertEquals(THRESHOLD - 2, ((Number) stats(listingId).get("pending_count")).intValue());
+    }
+
+    @Test
+    void queueIsOrderedByPendingReportsDescending() throws Exception {
+        TestData data = new TestData(jdbcTemplate);
+        long one = newListing(data);
+        long three = newListing(data);
+        long two = newListing(data);
+        addReports(data, one, 1);
+        addReports(data, three, 3);
+        addReports(data, two, 2);
+
+        String adminName = TestData.unique("mod_admin");
+        long adminId = data.user(adminName, "unused", "ADMIN");
+        String token = jwtTokenProvider.generateAccessToken(adminId, adminName, adminName + "@example.com", "ADMIN");
+        String body = mockMvc.perform(get("/api/admin/moderation/queue").param("size", "100")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Очередь общая для всех тестов класса: проверяем взаимный порядок своих объявлений
+        List<Long> ours = new ArrayList<>();
+        for (JsonNode item : objectMapper.readTree(body).get("items")) {
+            long id = item.get("listing").get("id").asLong();
+            if (id == one || id == two || id == three) {
+                ours.add(id);
+            }
+        }
+        assertEquals(List.of(three, two, one), ours);
+    }
+
+    private long newListing(TestData data) {
+        long sellerId = data.user(TestData.unique("mod_seller"));
+        long categoryId = data.category(TestData.unique("Модерация"));
+        return data.listing(TestData.unique("Объявление"), sellerId, categoryId);
+    }
+
+    private void addReports(TestData data, long listingId, int count) {
+        for (int i = 0; i < count; i++) {
+            reportService.createReport(report("Жалоба"), listingId, data.user(TestData.unique("mod_queue")));
+        }
+    }
+
+    private static Report report(String reason) {
+        Report report = new Report();
+        report.setReason(reason);
+        return report;
+    }
+
+    private boolean isActive(long listingId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT is_active FROM listings WHERE id = ?", Boolean.class, listingId));
+    }
+
+    private Map<String, Object> stats(long listingId) {
+        return jdbcTemplate.queryForMap("SELECT pending_count, total_count, auto_hidden_at FROM listing_report_stats "
+                + "WHERE listing_id = ?", listingId);
+    }
+}
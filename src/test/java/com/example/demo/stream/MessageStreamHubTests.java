@@ -0,0 +1,196 @@
+package com.example.demo.stream;
+
+import com.example.demo.dto.MessageSummary;
+import com.example.demo.entity.Message;
+import com.example.demo.repository.MessageRepository;
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.service.MessageService;
+import com.example.demo.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Поток входящих (SSE): досылка после Last-Event-ID без повторов, ограничение числа подключений
+ * пользователя и закрытие подключения, чья очередь переполнилась.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class MessageStreamHubTests {
+
+    private static final long TIMEOUT_MS = 5_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private MessageStreamHub messageStreamHub;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void missedMessagesAreReplayedAfterLastEventIdOnce() throws Exception {
+        Conversation conversation = newConversation();
+        long first = conversation.send("Первое");
+        long second = conversation.send("Второе");
+        long third = conversation.send("Третье");
+
+        MvcResult stream = open(conversation, first);
+        await(() -> body(stream).contains("id:" + third + "\n"));
+        long fourth = conversation.send("Четвёртое");
+        await(() -> body(stream).contains("id:" + fourth + "\n"));
+
+        String body = body(stream);
+        assertFalse(body.contains("id:" + first + "\n"));
+        // Сообщения, пришедшие в очередь во время досылки, не отправляются второй раз
+        for (long id : List.of(second, third, fourth)) {
+            assertEquals(1, body.split("id:" + id + "\n", -1).length - 1, body);
+        }
+        assertTrue(body.indexOf("id:" + second + "\n") < body.indexOf("id:" + third + "\n"));
+    }
+
+    @Test
+    void oldestConnectionIsClosedOverPerUserLimit() throws Exception {
+        Conversation conversation = newConversation();
+        int before = messageStreamHub.getConnectionCount();
+
+        List<MvcResult> streams = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            streams.add(open(conversation, null));
+        }
+        await(() -> messageStreamHub.getConnectionCount() == before + 5);
+
+        long id = conversation.send("После лимита");
+        for (MvcResult stream : streams.subList(1, streams.size())) {
+            await(() -> body(stream).contains("id:" + id + "\n"));
+        }
+        assertFalse(body(streams.get(0)).contains("id:" + id + "\n"));
+    }
+
+    @Test
+    void connectionWithOverflowingQueueIsClosed() throws Exception {
+        CountDownLatch replayStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Писатель занят досылкой и не разбирает очередь: так ведёт себя медленный клиент
+        MessageRepository blockingRepository = (MessageRepository) Proxy.newProxyInstance(
+                MessageRepository.class.getClassLoader(), new Class<?>[]{MessageRepository.class},
+                (proxy, method, args) -> {
+                    replayStarted.countDown();
+                    release.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    return List.of();
+                });
+        MessageStreamHub hub = new MessageStreamHub(blockingRepository);
+        ReflectionTestUtils.setField(hub, "timeoutMs", TIMEOUT_MS);
+        ReflectionTestUtils.setField(hub, "queueCapacity", 2);
+        ReflectionTestUtils.setField(hub, "replayLimit", 100);
+        ReflectionTestUtils.setField(hub, "maxConnectionsPerUser", 5);
+        try {
+            hub.connect(1L, 0L);
+            assertTrue(replayStarted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+            hub.onMessageCreated(event(1));
+            hub.onMessageCreated(event(2));
+            assertEquals(1, hub.getConnectionCount());
+            hub.onMessageCreated(event(3));
+            assertEquals(0, hub.getConnectionCount());
+            // Закрытое подключение больше не получает сообщений
+            hub.onMessageCreated(event(4));
+            assertEquals(0, hub.getConnectionCount());
+        } finally {
+            release.countDown();
+            hub.shutdown();
+        }
+    }
+
+    private Conversation newConversation() {
+        TestData data = new TestData(jdbcTemplate);
+        String receiver = TestData.unique("stream_receiver");
+        long receiverId = data.user(receiver);
+        long senderId = data.user(TestData.unique("stream_sender"));
+        long listingId = data.listing(TestData.unique("Поток"), receiverId, data.category(TestData.unique("Поток")));
+        String token = jwtTokenProvider.generateAccessToken(receiverId, receiver, receiver + "@example.com", "USER");
+        return new Conversation(receiverId, senderId, listingId, token);
+    }
+
+    private MvcResult open(Conversation conversation, Long lastEventId) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/messages/stream")
+                .header("Authorization", "Bearer " + conversation.token);
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private static String body(MvcResult stream) {
+        try {
+            return stream.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in " + TIMEOUT_MS + " ms");
+            Thread.sleep(10);
+        }
+    }
+
+    private static MessageCreatedEvent event(long id) {
+        return new MessageCreatedEvent(1L, new MessageSummary(id, "Текст", LocalDateTime.now(), false,
+                1L, "Объявление", 2L, "sender", 1L, "receiver"));
+    }
+
+    private final class Conversation {
+
+        private final long receiverId;
+        private final long senderId;
+        private final long listingId;
+        private final String token;
+
+        private Conversation(long receiverId, long senderId, long listingId, String token) {
+            this.receiverId = receiverId;
+            this.senderId = senderId;
+            this.listingId = listingId;
+            this.token = token;
+        }
+
+        private long send(String text) {
+            Message message = new Message();
+            message.setText(text);
+            return messageService.createMessage(message, listingId, senderId, receiverId).getId();
+        }
+    }
+}
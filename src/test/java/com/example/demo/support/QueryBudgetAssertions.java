@@ -0,0 +1,38 @@
+package com.example.demo.support;
+
+import com.example.demo.monitoring.QueryCountingStatementInspector;
+import com.example.demo.monitoring.QueryStatistics;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.Map;
+
+/**
+ * Проверка числа SQL-выражений Hibernate в блоке теста. Считаются выражения текущего потока,
+ * поэтому подходит для вызовов сервисов и MockMvc, но не для запросов к запущенному серверу.
+ */
+public final class QueryBudgetAssertions {
+
+    private QueryBudgetAssertions() {
+    }
+
+    /** Выполняет блок и падает, если он выполнил больше maxStatements выражений; в сообщении — все SQL. */
+    public static QueryStatistics assertMaxQueries(int maxStatements, Executable action) throws Throwable {
+        QueryCountingStatementInspector.start();
+        QueryStatistics statistics;
+        try {
+            action.execute();
+        } finally {
+            statistics = QueryCountingStatementInspector.stop();
+        }
+        if (statistics.getStatements() > maxStatements) {
+            StringBuilder message = new StringBuilder()
+                    .append("Expected at most ").append(maxStatements)
+                    .append(" SQL statements but was ").append(statistics.getStatements()).append(':');
+            for (Map.Entry<String, Integer> entry : statistics.getStatementCounts().entrySet()) {
+                message.append("\n  ").append(entry.getValue()).append("x ").append(entry.getKey());
+            }
+            throw new AssertionError(message.toString());
+        }
+        return statistics;
+    }
+}
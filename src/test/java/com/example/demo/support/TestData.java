@@ -0,0 +1,58 @@
+package com.example.demo.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Вставка тестовых строк напрямую через JDBC, минуя сервисы и их побочные эффекты.
+ * Контекст и база общие для тестовых классов, поэтому имена получают уникальный суффикс (unique).
+ */
+public final class TestData {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TestData(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static String unique(String prefix) {
+        return prefix + "_" + Long.toString(SEQUENCE.incrementAndGet(), 36);
+    }
+
+    public long user(String username) {
+        return user(username, "unused", "USER");
+    }
+
+    public long user(String username, String passwordHash, String role) {
+        jdbcTemplate.update("INSERT INTO users (username, email, password, role, enabled) VALUES (?, ?, ?, ?, TRUE)",
+                username, username + "@example.com", passwordHash, role);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+    }
+
+    public long category(String name) {
+        jdbcTemplate.update("INSERT INTO categories (name, description) VALUES (?, 'Тест')", name);
+        return jdbcTemplate.queryForObject("SELECT id FROM categories WHERE name = ?", Long.class, name);
+    }
+
+    public long listing(String title, long userId, long categoryId) {
+        Long id = jdbcTemplate.queryForObject("SELECT nextval('listings_seq')", Long.class);
+        jdbcTemplate.update("INSERT INTO listings (id, title, description, price, user_id, category_id, created_at, is_active) "
+                + "VALUES (?, ?, 'Описание', 100.0, ?, ?, CURRENT_TIMESTAMP, TRUE)", id, title, userId, categoryId);
+        return id;
+    }
+
+    public void message(String text, long listingId, long senderId, long receiverId) {
+        jdbcTemplate.update("INSERT INTO messages (text, listing_id, sender_id, receiver_id, created_at, is_read) "
+                + "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, FALSE)", text, listingId, senderId, receiverId);
+    }
+
+    public long report(long listingId, long userId, String reason) {
+        jdbcTemplate.update("INSERT INTO reports (reason, listing_id, user_id, created_at, status) "
+                + "VALUES (?, ?, ?, CURRENT_TIMESTAMP, 'PENDING')", reason, listingId, userId);
+        return jdbcTemplate.queryForObject("SELECT id FROM reports WHERE listing_id = ? AND user_id = ?",
+                Long.class, listingId, userId);
+    }
+}